@@ -3,15 +3,54 @@ package br.unirio.covid19.pooling;
 import java.io.IOException;
 
 import br.unirio.covid19.pooling.analysis.AnalysisSensitivity;
+import br.unirio.covid19.pooling.engine.ColumnarResultReader;
+import br.unirio.covid19.pooling.experiment.ExperimentRunner;
+import br.unirio.covid19.pooling.experiment.ShardMerger;
 import br.unirio.covid19.pooling.utils.PseudoRandom;
 
 public class MainProgram
 {
     public static final void main(final String[] args) throws IOException
     {
+        if (args.length == 3 && args[0].equals("--convert"))
+        {
+            ColumnarResultReader.convertToText(args[1], args[2]);
+            return;
+        }
+
+        if (args.length > 2 && args[0].equals("--merge"))
+        {
+            ShardMerger merger = new ShardMerger();
+
+            for (int i = 2; i < args.length; i++)
+                merger.mergeExperiments(args[i], Integer.parseInt(args[1]));
+
+            return;
+        }
+
+        if (args.length > 0)
+        {
+            ExperimentRunner runner = new ExperimentRunner();
+            int first = 0;
+
+            if (args.length > 2 && args[0].equals("--shard"))
+            {
+                String[] shard = args[1].split("/");
+                runner.setShard(Integer.parseInt(shard[0]), Integer.parseInt(shard[1]));
+                first = 2;
+            }
+
+            for (int i = first; i < args.length; i++)
+                runner.run(args[i]);
+
+            return;
+        }
+
         PseudoRandom.init(347634739);
         // new AnalysisSensitivity().analyzeBaseline();
         // new AnalysisSensitivity().analyzeSensitivity();
+        // new AnalysisSensitivity().analyzeOptimalPartition();
         new AnalysisSensitivity().analyzeRealDataset();
+        // new AnalysisSensitivity().analyzeEinsteinDataset("data//einstein-dataset.csv");
     }
 }
\ No newline at end of file
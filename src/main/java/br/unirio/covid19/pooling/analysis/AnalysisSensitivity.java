@@ -1,17 +1,28 @@
 package br.unirio.covid19.pooling.analysis;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 
+import br.unirio.covid19.pooling.dataset.EinsteinDataset;
+import br.unirio.covid19.pooling.dataset.EinsteinDatasetReader;
+import br.unirio.covid19.pooling.dataset.PositiveProbabilityEstimator;
+import br.unirio.covid19.pooling.engine.ColumnarResultWriter;
+import br.unirio.covid19.pooling.engine.ResultSummary;
+import br.unirio.covid19.pooling.engine.ResultWriter;
+import br.unirio.covid19.pooling.engine.SimulationResult;
 import br.unirio.covid19.pooling.engine.Simulator;
+import br.unirio.covid19.pooling.engine.TextResultWriter;
+import br.unirio.covid19.pooling.model.pooling.BinarySplittingModel;
 import br.unirio.covid19.pooling.model.pooling.BorderGridModel;
 import br.unirio.covid19.pooling.model.pooling.FullGridModel;
+import br.unirio.covid19.pooling.model.pooling.OptimalPartitionModel;
 import br.unirio.covid19.pooling.model.pooling.ShiftedTraversalModel;
+import br.unirio.covid19.pooling.model.pooling.TournamentAdaptativeModel;
 import br.unirio.covid19.pooling.model.pooling.TournamentAdaptativeModel2;
 import br.unirio.covid19.pooling.model.pooling.TournamentModel;
 import br.unirio.covid19.pooling.model.simulation.Strategy;
+import br.unirio.covid19.pooling.utils.ProgressReporter;
 import br.unirio.covid19.pooling.utils.PseudoRandom;
+import lombok.Setter;
 
 public class AnalysisSensitivity 
 {
@@ -19,41 +30,63 @@ public class AnalysisSensitivity
     private static final int SIMULATION_SCENARIOS = 100;
     private static final int SIMULATION_CYCLES = 100;
 
+    private ProgressReporter progress;
+    private ResultSummary summary;
+
+    /**
+     * Indicates whether the sensitivity analysis writes its rounds to results-sensitivity.bin
+     * in the columnar binary format, instead of results-sensitivity.csv as text
+     */
+    private @Setter boolean binaryOutput;
+
+    /**
+     * Runs a strategy on a simulator, saving the results, adding them to the summary and
+     * reporting its progress
+     */
+    private void run(Simulator simulator, int population, ResultWriter writer, String roundId, Strategy strategy) throws IOException
+    {
+        SimulationResult results = simulator.run(SIMULATION_CYCLES, strategy);
+        results.save(writer, roundId);
+        summary.add(roundId, population, results);
+        progress.addRounds(SIMULATION_CYCLES, population);
+    }
+
     public void analyzeBaseline() throws IOException
     {
         double[] prevalences = new double[] { 0.001, 0.01, 0.05, 0.10 };
         int[] poolSizes = new int[] { 2, 4, 6, 8, 10 };
 
-        FileWriter writer = new FileWriter(new File("results//sensitivity//results-baseline.csv"));
-        writer.write("id\tprev\terrors\ttrials\n");
+        ResultWriter writer = new TextResultWriter("results//sensitivity//results-baseline.csv", "id\tprev\terrors\ttrials");
 
-        System.out.print("Running BASELINE ");
+        int cells = prevalences.length * poolSizes.length;
+        summary = new ResultSummary();
+        progress = new ProgressReporter("BASELINE", cells, (long) cells * SIMULATION_SCENARIOS * 4 * SIMULATION_CYCLES);
 
         for (int i = 0; i < prevalences.length; i++)
         {
             for (int j = 0; j < poolSizes.length; j++)
             {
                 analyzeBaseline(writer, prevalences[i], poolSizes[j]);
+                progress.completeCell();
             }
-
-            System.out.print(".");
         }
 
-        System.out.println();
+        progress.finish();
         writer.close();
+        summary.save("results//sensitivity//results-baseline-summary.csv", "id\tprev");
     }
 
-    private void analyzeBaseline(FileWriter writer, double prevalence, int poolSize) throws IOException
+    private void analyzeBaseline(ResultWriter writer, double prevalence, int poolSize) throws IOException
     {
         String prefix = "\t" + (int)(prevalence * 1000);
 
         for (int i = 0; i < SIMULATION_SCENARIOS; i++)
         {
             Simulator simulator = new Simulator(POPULATION_SIZE, Constants.FALSE_POSITIVE_PROBABILITY, 0.0).setPositiveProbability(prevalence);
-            simulator.run(SIMULATION_CYCLES, writer, "TR" + poolSize + prefix, new Strategy().add(new TournamentModel(poolSize, false)));
-            simulator.run(SIMULATION_CYCLES, writer, "FG" + poolSize + prefix, new Strategy().add(new FullGridModel(poolSize)));
-            simulator.run(SIMULATION_CYCLES, writer, "BG" + poolSize + prefix, new Strategy().add(new BorderGridModel(poolSize)));
-            simulator.run(SIMULATION_CYCLES, writer, "ST" + poolSize + prefix, new Strategy().add(new ShiftedTraversalModel(poolSize * 2, 2, 3)));
+            run(simulator, POPULATION_SIZE, writer, "TR" + poolSize + prefix, new Strategy().add(new TournamentModel(poolSize, false)));
+            run(simulator, POPULATION_SIZE, writer, "FG" + poolSize + prefix, new Strategy().add(new FullGridModel(poolSize)));
+            run(simulator, POPULATION_SIZE, writer, "BG" + poolSize + prefix, new Strategy().add(new BorderGridModel(poolSize)));
+            run(simulator, POPULATION_SIZE, writer, "ST" + poolSize + prefix, new Strategy().add(new ShiftedTraversalModel(poolSize * 2, 2, 3)));
         }
     }
 
@@ -62,29 +95,31 @@ public class AnalysisSensitivity
         double[] prevalences = new double[] { 0.001, 0.01, 0.05, 0.10 };
         int[] poolSizes = new int[] { 10, 10, 6, 4 };
 
-        FileWriter writer = new FileWriter(new File("results//sensitivity//results-sensitivity.csv"));
-        writer.write("id\tspec\tsens\tprev\terrors\ttrials\n");
+        String header = "id\tspec\tsens\tprev\terrors\ttrials";
+        ResultWriter writer = binaryOutput ? new ColumnarResultWriter("results//sensitivity//results-sensitivity.bin", header) : new TextResultWriter("results//sensitivity//results-sensitivity.csv", header);
+
+        int cells = 7 * 7 * prevalences.length;
+        summary = new ResultSummary();
+        progress = new ProgressReporter("SENSITIVITY", cells, (long) cells * SIMULATION_SCENARIOS * 2 * SIMULATION_CYCLES);
 
         for (double specificity = 0.70; specificity <= 1.001; specificity += 0.05)
         {
             for (double sensitivity = 0.70; sensitivity <= 1.001; sensitivity += 0.05)
             {
-                System.out.print("Running SP-" + (int)(specificity * 100) + " x SE-" + (int)(sensitivity * 100) + " ");
-
                 for (int i = 0; i < prevalences.length; i++)
                 {
                     analyzeSensitivity(writer, specificity, sensitivity, prevalences[i], poolSizes[i]);
-                    System.out.print(".");
+                    progress.completeCell();
                 }
-
-                System.out.println();
             }
         }
 
+        progress.finish();
         writer.close();
+        summary.save("results//sensitivity//results-sensitivity-summary.csv", "id\tspec\tsens\tprev");
     }
 
-    private void analyzeSensitivity(FileWriter writer, double specificity, double sensitivity, double prevalence, int poolSize) throws IOException 
+    private void analyzeSensitivity(ResultWriter writer, double specificity, double sensitivity, double prevalence, int poolSize) throws IOException 
     {
         for (int i = 0; i < SIMULATION_SCENARIOS; i++)
         {
@@ -96,10 +131,59 @@ public class AnalysisSensitivity
             Simulator simulator = new Simulator(POPULATION_SIZE, Constants.FALSE_POSITIVE_PROBABILITY, 0.00).loadPositiveProbability(probabilities);
             
             String tournamentId = "TR" + poolSize + "\t" + (int)(specificity * 100) + "\t" + (int)(sensitivity * 100) + "\t" + (int)(prevalence * 1000);
-            simulator.run(SIMULATION_CYCLES, writer, tournamentId, new Strategy().add(new TournamentModel(poolSize, true)));
+            run(simulator, POPULATION_SIZE, writer, tournamentId, new Strategy().add(new TournamentModel(poolSize, true)));
 
             String adaptativeId = "TA" + poolSize + "\t" + (int)(specificity * 100) + "\t" + (int)(sensitivity * 100) + "\t" + (int)(prevalence * 1000);
-            simulator.run(SIMULATION_CYCLES, writer, adaptativeId, new Strategy().add(new TournamentAdaptativeModel2(poolSize)));
+            run(simulator, POPULATION_SIZE, writer, adaptativeId, new Strategy().add(new TournamentAdaptativeModel2(poolSize)));
+        }
+    }
+
+    /**
+     * Runs the optimal partition model on the same specificity, sensitivity and prevalence grid
+     * used by the sensitivity analysis. It is kept apart from analyzeSensitivity so that the
+     * tournament rounds in results-sensitivity.csv keep drawing the same random sequence.
+     */
+    public void analyzeOptimalPartition() throws IOException 
+    {
+        double[] prevalences = new double[] { 0.001, 0.01, 0.05, 0.10 };
+        int[] poolSizes = new int[] { 10, 10, 6, 4 };
+
+        ResultWriter writer = new TextResultWriter("results//sensitivity//results-optimal-partition.csv", "id\tspec\tsens\tprev\terrors\ttrials");
+
+        int cells = 7 * 7 * prevalences.length;
+        summary = new ResultSummary();
+        progress = new ProgressReporter("OPTIMAL PARTITION", cells, (long) cells * SIMULATION_SCENARIOS * SIMULATION_CYCLES);
+
+        for (double specificity = 0.70; specificity <= 1.001; specificity += 0.05)
+        {
+            for (double sensitivity = 0.70; sensitivity <= 1.001; sensitivity += 0.05)
+            {
+                for (int i = 0; i < prevalences.length; i++)
+                {
+                    analyzeOptimalPartition(writer, specificity, sensitivity, prevalences[i], poolSizes[i]);
+                    progress.completeCell();
+                }
+            }
+        }
+
+        progress.finish();
+        writer.close();
+        summary.save("results//sensitivity//results-optimal-partition-summary.csv", "id\tspec\tsens\tprev");
+    }
+
+    private void analyzeOptimalPartition(ResultWriter writer, double specificity, double sensitivity, double prevalence, int poolSize) throws IOException 
+    {
+        for (int i = 0; i < SIMULATION_SCENARIOS; i++)
+        {
+            int positives = PseudoRandom.randBinomial(POPULATION_SIZE, prevalence);
+            int[] population = generatePopulation(positives);
+            int[] estimation = generateEstimation(specificity, sensitivity, positives, population);
+            double[] probabilities = generateProbabilities(estimation);
+
+            Simulator simulator = new Simulator(POPULATION_SIZE, Constants.FALSE_POSITIVE_PROBABILITY, 0.00).loadPositiveProbability(probabilities);
+
+            String optimalId = "OP" + poolSize + "\t" + (int)(specificity * 100) + "\t" + (int)(sensitivity * 100) + "\t" + (int)(prevalence * 1000);
+            run(simulator, POPULATION_SIZE, writer, optimalId, new Strategy().add(new OptimalPartitionModel(poolSize)));
         }
     }
 
@@ -148,24 +232,57 @@ public class AnalysisSensitivity
 
     public void analyzeRealDataset() throws IOException
     {
-        FileWriter writer = new FileWriter(new File("results//sensitivity//results-real-dataset.csv"));
-        writer.write("id\tpop\terrors\ttrials\n");
+        ResultWriter writer = new TextResultWriter("results//sensitivity//results-real-dataset.csv", "id\tpop\terrors\ttrials");
+
+        summary = new ResultSummary();
+        progress = new ProgressReporter("REAL DATASET", SIMULATION_SCENARIOS, (long) SIMULATION_SCENARIOS * 4 * SIMULATION_CYCLES);
 
         for (int i = 0; i < SIMULATION_SCENARIOS; i++)
         {
             Simulator simulator1 = new Simulator(181, Constants.FALSE_POSITIVE_PROBABILITY, 0.0).setPositiveProbability(0.137);
-            simulator1.run(SIMULATION_CYCLES, writer, "TR4-181-13p7\t181", new Strategy().add(new TournamentModel(4, true)));
+            run(simulator1, 181, writer, "TR4-181-13p7\t181", new Strategy().add(new TournamentModel(4, true)));
 
             Simulator simulator2 = new Simulator(140, Constants.FALSE_POSITIVE_PROBABILITY, 0.0).setPositiveProbability(0.05);
-            simulator2.run(SIMULATION_CYCLES, writer, "TR6-140-5\t140", new Strategy().add(new TournamentModel(6, true)));
+            run(simulator2, 140, writer, "TR6-140-5\t140", new Strategy().add(new TournamentModel(6, true)));
 
             Simulator simulator3 = new Simulator(173, Constants.FALSE_POSITIVE_PROBABILITY, 0.0).setPositiveProbability(0.11);
-            simulator3.run(SIMULATION_CYCLES, writer, "TR4-173-11\t173", new Strategy().add(new TournamentModel(4, true)));
+            run(simulator3, 173, writer, "TR4-173-11\t173", new Strategy().add(new TournamentModel(4, true)));
 
             Simulator simulator4 = new Simulator(155, Constants.FALSE_POSITIVE_PROBABILITY, 0.0).setPositiveProbability(0.06);
-            simulator4.run(SIMULATION_CYCLES, writer, "TR5-155-6\t155", new Strategy().add(new TournamentModel(5, true)));
+            run(simulator4, 155, writer, "TR5-155-6\t155", new Strategy().add(new TournamentModel(5, true)));
+            progress.completeCell();
+        }
+
+        progress.finish();
+        writer.close();
+        summary.save("results//sensitivity//results-real-dataset-summary.csv", "id\tpop");
+    }
+
+    public void analyzeEinsteinDataset(String filename) throws IOException
+    {
+        EinsteinDataset dataset = new EinsteinDatasetReader().read(filename);
+        double[] probabilities = new PositiveProbabilityEstimator().estimate(dataset);
+        int population = dataset.countPatients();
+
+        System.out.println("Einstein dataset: " + population + " patients, " + dataset.countFeatures() + " features, prevalence " + dataset.calculatePrevalence());
+
+        ResultWriter writer = new TextResultWriter("results//sensitivity//results-einstein-dataset.csv", "id\tpop\terrors\ttrials");
+        String suffix = "\t" + population;
+        summary = new ResultSummary();
+        progress = new ProgressReporter("EINSTEIN DATASET", SIMULATION_SCENARIOS, (long) SIMULATION_SCENARIOS * 4 * SIMULATION_CYCLES);
+
+        for (int i = 0; i < SIMULATION_SCENARIOS; i++)
+        {
+            Simulator simulator = new Simulator(population, Constants.FALSE_POSITIVE_PROBABILITY, 0.0).loadPositiveProbability(probabilities);
+            run(simulator, population, writer, "TR4" + suffix, new Strategy().add(new TournamentModel(4, true)));
+            run(simulator, population, writer, "TA" + suffix, new Strategy().add(new TournamentAdaptativeModel()));
+            run(simulator, population, writer, "OP" + suffix, new Strategy().add(new OptimalPartitionModel()));
+            run(simulator, population, writer, "BS" + suffix, new Strategy().add(new BinarySplittingModel(32)));
+            progress.completeCell();
         }
 
+        progress.finish();
         writer.close();
+        summary.save("results//sensitivity//results-einstein-dataset-summary.csv", "id\tpop");
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package br.unirio.covid19.pooling.dataset;
+
+import lombok.Getter;
+
+/**
+ * Class that represents the patients of the Einstein COVID-19 dataset, with the result
+ * of their SARS-CoV-2 exam and their features encoded as numbers (missing values are
+ * represented as NaN)
+ */
+public class EinsteinDataset
+{
+    private @Getter String[] featureNames;
+
+    private String[] patientIds;
+
+    private boolean[] positive;
+
+    private double[][] features;
+
+    /**
+     * Initializes the dataset
+     */
+    public EinsteinDataset(String[] featureNames, String[] patientIds, boolean[] positive, double[][] features)
+    {
+        this.featureNames = featureNames;
+        this.patientIds = patientIds;
+        this.positive = positive;
+        this.features = features;
+    }
+
+    /**
+     * Counts the patients in the dataset
+     */
+    public int countPatients()
+    {
+        return patientIds.length;
+    }
+
+    /**
+     * Counts the features of each patient
+     */
+    public int countFeatures()
+    {
+        return featureNames.length;
+    }
+
+    /**
+     * Returns the identifier of a patient
+     */
+    public String getPatientId(int patient)
+    {
+        return patientIds[patient];
+    }
+
+    /**
+     * Determines whether a patient has tested positive
+     */
+    public boolean isPositive(int patient)
+    {
+        return positive[patient];
+    }
+
+    /**
+     * Returns the value of a feature for a patient, or NaN if it is missing
+     */
+    public double getFeature(int patient, int feature)
+    {
+        return features[patient][feature];
+    }
+
+    /**
+     * Calculates the fraction of patients that have tested positive
+     */
+    public double calculatePrevalence()
+    {
+        int count = 0;
+
+        for (boolean value : positive)
+            if (value)
+                count++;
+
+        return (double) count / positive.length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,190 @@
+package br.unirio.covid19.pooling.dataset;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class that reads the Einstein COVID-19 dataset exported as CSV, line by line. The
+ * patient identifier and exam result columns are recognized by name, as well as the
+ * hospital admission columns, which are not used as features. Numeric values are kept
+ * as they are, "positive"/"detected" are encoded as 1, "negative"/"not_detected" as 0
+ * and any other value is treated as missing.
+ */
+public class EinsteinDatasetReader
+{
+    private static final String ID_COLUMN = "patient id";
+
+    private static final String RESULT_COLUMN = "sars-cov-2 exam result";
+
+    private static final String ADMISSION_COLUMN_PREFIX = "patient addmited";
+
+    /**
+     * Reads the dataset from a CSV file separated by commas or semicolons
+     */
+    public EinsteinDataset read(String filename) throws IOException
+    {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8))
+        {
+            String headerLine = reader.readLine();
+
+            if (headerLine == null)
+                throw new IOException("Empty dataset file " + filename);
+
+            char separator = detectSeparator(headerLine);
+            String[] header = splitLine(headerLine, separator);
+
+            int idColumn = -1;
+            int resultColumn = -1;
+            List<Integer> featureColumns = new ArrayList<Integer>();
+            List<String> featureNames = new ArrayList<String>();
+
+            for (int i = 0; i < header.length; i++)
+            {
+                String name = header[i].trim().toLowerCase();
+
+                if (name.equals(ID_COLUMN))
+                    idColumn = i;
+                else if (name.equals(RESULT_COLUMN))
+                    resultColumn = i;
+                else if (!name.startsWith(ADMISSION_COLUMN_PREFIX))
+                {
+                    featureColumns.add(i);
+                    featureNames.add(header[i].trim());
+                }
+            }
+
+            if (resultColumn < 0)
+                throw new IOException("Column '" + RESULT_COLUMN + "' not found in " + filename);
+
+            List<String> patientIds = new ArrayList<String>();
+            List<Boolean> positive = new ArrayList<Boolean>();
+            List<double[]> features = new ArrayList<double[]>();
+            String line;
+            int lineNumber = 1;
+
+            while ((line = reader.readLine()) != null)
+            {
+                lineNumber++;
+
+                if (line.trim().length() == 0)
+                    continue;
+
+                String[] values = splitLine(line, separator);
+
+                if (values.length != header.length)
+                    throw new IOException("Line " + lineNumber + " of " + filename + " has " + values.length + " columns instead of " + header.length);
+
+                double result = encodeValue(values[resultColumn]);
+
+                if (Double.isNaN(result))
+                    throw new IOException("Line " + lineNumber + " of " + filename + " has an invalid exam result: " + values[resultColumn]);
+
+                double[] row = new double[featureColumns.size()];
+
+                for (int i = 0; i < row.length; i++)
+                    row[i] = encodeValue(values[featureColumns.get(i)]);
+
+                patientIds.add(idColumn >= 0 ? values[idColumn].trim() : Integer.toString(patientIds.size() + 1));
+                positive.add(result > 0.5);
+                features.add(row);
+            }
+
+            boolean[] positiveArray = new boolean[positive.size()];
+
+            for (int i = 0; i < positiveArray.length; i++)
+                positiveArray[i] = positive.get(i);
+
+            return new EinsteinDataset(featureNames.toArray(new String[0]), patientIds.toArray(new String[0]), positiveArray, features.toArray(new double[0][]));
+        }
+    }
+
+    /**
+     * Detects whether the file uses commas or semicolons as separators
+     */
+    private char detectSeparator(String headerLine)
+    {
+        int commas = 0;
+        int semicolons = 0;
+
+        for (int i = 0; i < headerLine.length(); i++)
+        {
+            if (headerLine.charAt(i) == ',')
+                commas++;
+            else if (headerLine.charAt(i) == ';')
+                semicolons++;
+        }
+
+        return (semicolons > commas) ? ';' : ',';
+    }
+
+    /**
+     * Splits a CSV line into values, handling quoted values
+     */
+    private String[] splitLine(String line, char separator)
+    {
+        List<String> values = new ArrayList<String>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+
+            if (quoted)
+            {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"')
+                {
+                    value.append('"');
+                    i++;
+                }
+                else if (c == '"')
+                    quoted = false;
+                else
+                    value.append(c);
+            }
+            else if (c == '"')
+                quoted = true;
+            else if (c == separator)
+            {
+                values.add(value.toString());
+                value.setLength(0);
+            }
+            else
+                value.append(c);
+        }
+
+        values.add(value.toString());
+        return values.toArray(new String[0]);
+    }
+
+    /**
+     * Encodes a value of the dataset as a number
+     */
+    private double encodeValue(String value)
+    {
+        String text = value.trim().toLowerCase();
+
+        if (text.length() == 0)
+            return Double.NaN;
+
+        if (text.equals("positive") || text.equals("detected"))
+            return 1.0;
+
+        if (text.equals("negative") || text.equals("not_detected"))
+            return 0.0;
+
+        try
+        {
+            return Double.parseDouble(text.replace(',', '.'));
+        }
+        catch (NumberFormatException e)
+        {
+            return Double.NaN;
+        }
+    }
+}
\ No newline at end of file
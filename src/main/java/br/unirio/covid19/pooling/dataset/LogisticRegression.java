@@ -0,0 +1,78 @@
+package br.unirio.covid19.pooling.dataset;
+
+/**
+ * Class that represents a logistic regression model trained by batch gradient descent
+ * with L2 regularization. Features are expected to be complete and standardized.
+ */
+public class LogisticRegression
+{
+    private int iterations;
+
+    private double learningRate;
+
+    private double regularization;
+
+    private double[] weights;
+
+    private double bias;
+
+    /**
+     * Initializes the model with its training parameters
+     */
+    public LogisticRegression(int iterations, double learningRate, double regularization)
+    {
+        this.iterations = iterations;
+        this.learningRate = learningRate;
+        this.regularization = regularization;
+    }
+
+    /**
+     * Trains the model for a set of examples and their labels
+     */
+    public void fit(double[][] examples, boolean[] labels)
+    {
+        int exampleCount = examples.length;
+        int featureCount = (exampleCount > 0) ? examples[0].length : 0;
+        weights = new double[featureCount];
+        bias = 0.0;
+
+        double[] gradient = new double[featureCount];
+
+        for (int iteration = 0; iteration < iterations; iteration++)
+        {
+            for (int j = 0; j < featureCount; j++)
+                gradient[j] = regularization * weights[j];
+
+            double biasGradient = 0.0;
+
+            for (int i = 0; i < exampleCount; i++)
+            {
+                double error = predict(examples[i]) - (labels[i] ? 1.0 : 0.0);
+                double[] example = examples[i];
+
+                for (int j = 0; j < featureCount; j++)
+                    gradient[j] += error * example[j] / exampleCount;
+
+                biasGradient += error / exampleCount;
+            }
+
+            for (int j = 0; j < featureCount; j++)
+                weights[j] -= learningRate * gradient[j];
+
+            bias -= learningRate * biasGradient;
+        }
+    }
+
+    /**
+     * Calculates the probability of the positive class for an example
+     */
+    public double predict(double[] example)
+    {
+        double z = bias;
+
+        for (int j = 0; j < weights.length; j++)
+            z += weights[j] * example[j];
+
+        return 1.0 / (1.0 + Math.exp(-z));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,202 @@
+package br.unirio.covid19.pooling.dataset;
+
+/**
+ * Class that estimates the positive probability of each patient of the Einstein dataset
+ * using a logistic regression over the features of the patients. Probabilities are
+ * cross-fitted: patients are split into folds and each fold is scored by a model trained
+ * on the other folds, so no patient is scored by a model that has seen its result.
+ */
+public class PositiveProbabilityEstimator
+{
+    private int folds;
+
+    /**
+     * Initializes the estimator indicating the number of folds
+     */
+    public PositiveProbabilityEstimator(int folds)
+    {
+        this.folds = folds;
+    }
+
+    /**
+     * Initializes the estimator with five folds
+     */
+    public PositiveProbabilityEstimator()
+    {
+        this(5);
+    }
+
+    /**
+     * Estimates the positive probability of each patient in the dataset
+     */
+    public double[] estimate(EinsteinDataset dataset)
+    {
+        int patientCount = dataset.countPatients();
+        double[] probabilities = new double[patientCount];
+
+        for (int fold = 0; fold < folds; fold++)
+        {
+            boolean[] training = new boolean[patientCount];
+
+            for (int i = 0; i < patientCount; i++)
+                training[i] = (i % folds != fold);
+
+            FeatureEncoder encoder = new FeatureEncoder(dataset, training);
+            LogisticRegression model = new LogisticRegression(300, 0.5, 0.001);
+            model.fit(encoder.encode(dataset, training), selectLabels(dataset, training));
+
+            for (int i = 0; i < patientCount; i++)
+                if (!training[i])
+                    probabilities[i] = model.predict(encoder.encode(dataset, i));
+        }
+
+        return probabilities;
+    }
+
+    /**
+     * Selects the results of a set of patients
+     */
+    private boolean[] selectLabels(EinsteinDataset dataset, boolean[] selected)
+    {
+        int count = 0;
+
+        for (boolean value : selected)
+            if (value)
+                count++;
+
+        boolean[] labels = new boolean[count];
+        int walker = 0;
+
+        for (int i = 0; i < selected.length; i++)
+            if (selected[i])
+                labels[walker++] = dataset.isPositive(i);
+
+        return labels;
+    }
+}
+
+/**
+ * Class that encodes the features of a patient as a complete vector of standardized
+ * values: each feature with enough values is replaced by its mean when missing and
+ * followed by an indicator of whether it was missing
+ */
+class FeatureEncoder
+{
+    /**
+     * Minimum number of patients with a value for a feature to be used
+     */
+    private static final int MIN_PRESENT_VALUES = 10;
+
+    private int[] features;
+
+    private double[] means;
+
+    private double[] deviations;
+
+    /**
+     * Calculates the statistics of the features over a set of patients
+     */
+    public FeatureEncoder(EinsteinDataset dataset, boolean[] selected)
+    {
+        int featureCount = dataset.countFeatures();
+        int[] present = new int[featureCount];
+        double[] sum = new double[featureCount];
+        double[] sumOfSquares = new double[featureCount];
+
+        for (int i = 0; i < dataset.countPatients(); i++)
+        {
+            if (!selected[i])
+                continue;
+
+            for (int j = 0; j < featureCount; j++)
+            {
+                double value = dataset.getFeature(i, j);
+
+                if (!Double.isNaN(value))
+                {
+                    present[j]++;
+                    sum[j] += value;
+                    sumOfSquares[j] += value * value;
+                }
+            }
+        }
+
+        int usedCount = 0;
+
+        for (int j = 0; j < featureCount; j++)
+            if (isUsable(present[j], sum[j], sumOfSquares[j]))
+                usedCount++;
+
+        features = new int[usedCount];
+        means = new double[usedCount];
+        deviations = new double[usedCount];
+        int walker = 0;
+
+        for (int j = 0; j < featureCount; j++)
+        {
+            if (isUsable(present[j], sum[j], sumOfSquares[j]))
+            {
+                features[walker] = j;
+                means[walker] = sum[j] / present[j];
+                deviations[walker] = calculateDeviation(present[j], sum[j], sumOfSquares[j]);
+                walker++;
+            }
+        }
+    }
+
+    /**
+     * Determines whether a feature has enough distinct values to be used
+     */
+    private boolean isUsable(int present, double sum, double sumOfSquares)
+    {
+        return present >= MIN_PRESENT_VALUES && calculateDeviation(present, sum, sumOfSquares) > 1e-9;
+    }
+
+    /**
+     * Calculates the standard deviation of a feature
+     */
+    private double calculateDeviation(int present, double sum, double sumOfSquares)
+    {
+        double mean = sum / present;
+        return Math.sqrt(Math.max(0.0, sumOfSquares / present - mean * mean));
+    }
+
+    /**
+     * Encodes the features of a set of patients
+     */
+    public double[][] encode(EinsteinDataset dataset, boolean[] selected)
+    {
+        int count = 0;
+
+        for (boolean value : selected)
+            if (value)
+                count++;
+
+        double[][] examples = new double[count][];
+        int walker = 0;
+
+        for (int i = 0; i < selected.length; i++)
+            if (selected[i])
+                examples[walker++] = encode(dataset, i);
+
+        return examples;
+    }
+
+    /**
+     * Encodes the features of a patient
+     */
+    public double[] encode(EinsteinDataset dataset, int patient)
+    {
+        double[] example = new double[features.length * 2];
+
+        for (int j = 0; j < features.length; j++)
+        {
+            double value = dataset.getFeature(patient, features[j]);
+            boolean missing = Double.isNaN(value);
+            example[2 * j] = missing ? 0.0 : (value - means[j]) / deviations[j];
+            example[2 * j + 1] = missing ? 1.0 : 0.0;
+        }
+
+        return example;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package br.unirio.covid19.pooling.engine;
+
+import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
+import br.unirio.covid19.pooling.model.simulation.TestingSet;
+
+/**
+ * Class that evaluates and decodes the trials of a group with the individuals packed
+ * as bits in words of 64 individuals. The correct result of a trial is the AND of its
+ * mask with the mask of positive individuals, negative individuals are those outside
+ * the OR of the positive trials, and a positive trial resolves an individual when the
+ * population count of its unresolved members is one. Results are the same as those of
+ * the scalar decoding.
+ */
+public class BitPackedTrialKernel
+{
+    /**
+     * Creates the mask of the positive individuals in a group
+     */
+    public static long[] createPositiveMask(IndividualGroup group, int words)
+    {
+        long[] positives = new long[words];
+        int individualCount = group.countIndividuals();
+
+        for (int i = 0; i < individualCount; i++)
+            if (group.getIndividualByIndex(i).isPositive())
+                positives[i >>> 6] |= 1L << i;
+
+        return positives;
+    }
+
+    /**
+     * Determines whether a trial includes a positive individual
+     */
+    public static boolean includesPositive(long[] trialMask, long[] positives)
+    {
+        for (int w = 0; w < trialMask.length; w++)
+            if ((trialMask[w] & positives[w]) != 0)
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Resolves the individuals of a group from the results of its trials
+     */
+    public static void decode(boolean[] trialResults, TestingSet testingSet, IndividualGroup group)
+    {
+        long[][] trialMasks = testingSet.getTrialMasks();
+        int individualCount = testingSet.getIndividuals();
+        int words = (individualCount + 63) >>> 6;
+        long[] negatives = new long[words];
+        long[] unresolved = new long[words];
+
+        for (int trial = 0; trial < trialResults.length; trial++)
+            if (trialResults[trial])
+                for (int w = 0; w < words; w++)
+                    unresolved[w] |= trialMasks[trial][w];
+
+        for (int w = 0; w < words; w++)
+        {
+            negatives[w] = ~unresolved[w] & validBits(individualCount, w);
+            resolveAll(group, w, negatives[w], false);
+        }
+
+        for (int trial = 0; trial < trialResults.length; trial++)
+        {
+            if (trialResults[trial])
+                resolveSinglePositive(trialMasks[trial], negatives, unresolved, group);
+        }
+    }
+
+    /**
+     * Resolves the only unresolved individual in a positive trial if all others are negative
+     */
+    private static void resolveSinglePositive(long[] trialMask, long[] negatives, long[] unresolved, IndividualGroup group)
+    {
+        int memberCount = 0;
+        int negativeCount = 0;
+        int unresolvedCount = 0;
+        int candidateWord = -1;
+
+        for (int w = 0; w < trialMask.length; w++)
+        {
+            memberCount += Long.bitCount(trialMask[w]);
+            negativeCount += Long.bitCount(trialMask[w] & negatives[w]);
+            int count = Long.bitCount(trialMask[w] & unresolved[w]);
+
+            if (count > 0)
+                candidateWord = w;
+
+            unresolvedCount += count;
+        }
+
+        if (unresolvedCount == 1 && negativeCount == memberCount - 1)
+        {
+            long bit = Long.lowestOneBit(trialMask[candidateWord] & unresolved[candidateWord]);
+            unresolved[candidateWord] &= ~bit;
+            resolveAll(group, candidateWord, bit, true);
+        }
+    }
+
+    /**
+     * Resolves the individuals whose bits are set in a word
+     */
+    private static void resolveAll(IndividualGroup group, int word, long bits, boolean testedPositive)
+    {
+        while (bits != 0)
+        {
+            int bit = Long.numberOfTrailingZeros(bits);
+            group.getIndividualByIndex((word << 6) + bit).resolve(testedPositive);
+            bits &= bits - 1;
+        }
+    }
+
+    /**
+     * Returns the bits of a word that represent individuals of the group
+     */
+    private static long validBits(int individualCount, int word)
+    {
+        int remaining = individualCount - (word << 6);
+        return (remaining >= 64) ? -1L : (1L << remaining) - 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,251 @@
+package br.unirio.covid19.pooling.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import lombok.Getter;
+
+/**
+ * Class that reads the results written by a {@link ColumnarResultWriter}, one block
+ * at a time, and converts them back to tab-separated text
+ */
+public class ColumnarResultReader implements Closeable
+{
+    private String filename;
+    private DataInputStream input;
+    private Inflater inflater;
+    private @Getter String header;
+    private List<String> dictionary;
+    private byte[] block;
+    private int position;
+    private int[] ids;
+    private int[] errors;
+    private int[] trials;
+    private int rows;
+    private int nextRow;
+
+    /**
+     * Opens a binary result file and reads its header
+     */
+    public ColumnarResultReader(String filename) throws IOException
+    {
+        this.filename = filename;
+        this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(filename), 1 << 16));
+        this.inflater = new Inflater();
+        this.dictionary = new ArrayList<String>();
+        this.ids = new int[0];
+        this.errors = new int[0];
+        this.trials = new int[0];
+        this.rows = 0;
+        this.nextRow = 0;
+
+        byte[] magic = new byte[ColumnarResultWriter.MAGIC.length];
+
+        if (input.read(magic) != magic.length || !Arrays.equals(magic, ColumnarResultWriter.MAGIC))
+        {
+            close();
+            throw new IOException(filename + ": not a binary result file");
+        }
+
+        byte[] headerBytes = new byte[readVarint(input)];
+        input.readFully(headerBytes);
+        this.header = new String(headerBytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Moves to the next row, returning false if there are no more rows
+     */
+    public boolean next() throws IOException
+    {
+        while (nextRow >= rows)
+        {
+            if (!readBlock())
+                return false;
+        }
+
+        nextRow++;
+        return true;
+    }
+
+    /**
+     * Returns the round id of the current row
+     */
+    public String getRoundId()
+    {
+        return dictionary.get(ids[nextRow - 1]);
+    }
+
+    /**
+     * Returns the number of errors of the current row
+     */
+    public int getErrors()
+    {
+        return errors[nextRow - 1];
+    }
+
+    /**
+     * Returns the number of trials of the current row
+     */
+    public int getTrials()
+    {
+        return trials[nextRow - 1];
+    }
+
+    /**
+     * Reads and decompresses the next block, returning false at the end of the file
+     */
+    private boolean readBlock() throws IOException
+    {
+        int rawLength;
+
+        try
+        {
+            rawLength = readVarint(input);
+        }
+        catch (EOFException e)
+        {
+            return false;
+        }
+
+        byte[] compressed = new byte[readVarint(input)];
+        input.readFully(compressed);
+        block = new byte[rawLength];
+
+        try
+        {
+            inflater.reset();
+            inflater.setInput(compressed);
+
+            if (inflater.inflate(block) != rawLength)
+                throw new IOException(filename + ": truncated block");
+        }
+        catch (DataFormatException e)
+        {
+            throw new IOException(filename + ": corrupted block", e);
+        }
+
+        position = 0;
+        int newIds = readBlockVarint();
+
+        for (int i = 0; i < newIds; i++)
+        {
+            int length = readBlockVarint();
+            dictionary.add(new String(block, position, length, StandardCharsets.UTF_8));
+            position += length;
+        }
+
+        rows = readBlockVarint();
+        nextRow = 0;
+
+        if (ids.length < rows)
+        {
+            ids = new int[rows];
+            errors = new int[rows];
+            trials = new int[rows];
+        }
+
+        int runs = readBlockVarint();
+
+        for (int run = 0, row = 0; run < runs; run++)
+        {
+            int id = readBlockVarint();
+            int length = readBlockVarint();
+            Arrays.fill(ids, row, row + length, id);
+            row += length;
+        }
+
+        for (int i = 0; i < rows; i++)
+            errors[i] = readBlockVarint();
+
+        for (int i = 0; i < rows; i++)
+        {
+            int difference = readBlockVarint();
+            trials[i] = (i > 0 ? trials[i-1] : 0) + ((difference >>> 1) ^ -(difference & 1));
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads a variable-length integer from the current block
+     */
+    private int readBlockVarint()
+    {
+        int value = 0;
+
+        for (int shift = 0; ; shift += 7)
+        {
+            byte b = block[position++];
+            value |= (b & 0x7F) << shift;
+
+            if (b >= 0)
+                return value;
+        }
+    }
+
+    /**
+     * Reads a variable-length integer from a stream
+     */
+    private static int readVarint(InputStream in) throws IOException
+    {
+        int value = 0;
+
+        for (int shift = 0; ; shift += 7)
+        {
+            int b = in.read();
+
+            if (b < 0)
+                throw new EOFException();
+
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0)
+                return value;
+        }
+    }
+
+    /**
+     * Closes the file
+     */
+    @Override
+    public void close() throws IOException
+    {
+        inflater.end();
+        input.close();
+    }
+
+    /**
+     * Converts a binary result file to tab-separated text
+     */
+    public static void convertToText(String input, String output) throws IOException
+    {
+        try (ColumnarResultReader reader = new ColumnarResultReader(input); Writer writer = new BufferedWriter(new FileWriter(output)))
+        {
+            writer.write(reader.getHeader() + "\n");
+
+            while (reader.next())
+            {
+                String roundId = reader.getRoundId();
+
+                if (roundId.length() > 0)
+                    writer.write(roundId + "\t");
+
+                writer.write(reader.getErrors() + "\t" + reader.getTrials() + "\n");
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,268 @@
+package br.unirio.covid19.pooling.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Class that writes the results of simulation rounds in a compact binary columnar
+ * format. Rows are written in blocks; each block holds the round ids first seen in it,
+ * the id column as runs of dictionary indexes, and the errors column and the differences
+ * between the trials of consecutive rows as variable-length integers. Blocks are
+ * compressed with deflate using Huffman coding only, which is several times faster than
+ * searching for repeated strings and compresses columns of small integers as well.
+ *
+ * <pre>
+ * file  := "PRC1" varint(header length) header block*
+ * block := varint(raw length) varint(compressed length) deflate(raw)
+ * raw   := varint(new ids) (varint(length) id)* varint(rows)
+ *          varint(runs) (varint(id index) varint(run length))*
+ *          varint(errors)* varint(zigzag(trials - previous trials))*
+ * </pre>
+ */
+public class ColumnarResultWriter implements ResultWriter
+{
+    /**
+     * Bytes that identify the format at the start of a file
+     */
+    public static final byte[] MAGIC = { 'P', 'R', 'C', '1' };
+
+    /**
+     * Maximum number of rows in a block
+     */
+    private static final int BLOCK_ROWS = 1 << 16;
+
+    private OutputStream output;
+    private Deflater deflater;
+    private Map<String, Integer> dictionary;
+    private String lastRoundId;
+    private int lastId;
+    private int dictionaryWritten;
+    private String[] newIds;
+    private int[] ids;
+    private int[] errors;
+    private int[] trials;
+    private int rows;
+    private byte[] block;
+    private int blockLength;
+    private byte[] compressed;
+
+    /**
+     * Creates a binary file with a header, which holds the names of the columns
+     */
+    public ColumnarResultWriter(String filename, String header) throws IOException
+    {
+        this.output = new BufferedOutputStream(new FileOutputStream(filename), 1 << 16);
+        this.deflater = new Deflater();
+        this.deflater.setStrategy(Deflater.HUFFMAN_ONLY);
+        this.dictionary = new HashMap<String, Integer>();
+        this.dictionaryWritten = 0;
+        this.lastRoundId = null;
+        this.lastId = -1;
+        this.newIds = new String[BLOCK_ROWS];
+        this.ids = new int[BLOCK_ROWS];
+        this.errors = new int[BLOCK_ROWS];
+        this.trials = new int[BLOCK_ROWS];
+        this.rows = 0;
+        this.block = new byte[1 << 16];
+        this.compressed = new byte[1 << 16];
+
+        output.write(MAGIC);
+        byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+        writeHeaderVarint(headerBytes.length);
+        output.write(headerBytes);
+    }
+
+    /**
+     * Writes the result of a round
+     */
+    @Override
+    public void write(String roundId, int roundErrors, int roundTrials) throws IOException
+    {
+        if (roundId != lastRoundId)
+        {
+            Integer id = dictionary.get(roundId);
+
+            if (id == null)
+            {
+                id = dictionary.size();
+                dictionary.put(roundId, id);
+                newIds[id - dictionaryWritten] = roundId;
+            }
+
+            lastRoundId = roundId;
+            lastId = id;
+        }
+
+        ids[rows] = lastId;
+        errors[rows] = roundErrors;
+        trials[rows] = roundTrials;
+
+        if (++rows == BLOCK_ROWS)
+            writeBlock();
+    }
+
+    /**
+     * Writes the rows in the current block as a compressed block
+     */
+    private void writeBlock() throws IOException
+    {
+        if (rows == 0)
+            return;
+
+        blockLength = 0;
+        int newIdCount = dictionary.size() - dictionaryWritten;
+        writeVarint(newIdCount);
+
+        for (int i = 0; i < newIdCount; i++)
+        {
+            byte[] idBytes = newIds[i].getBytes(StandardCharsets.UTF_8);
+            writeVarint(idBytes.length);
+            ensureCapacity(idBytes.length);
+            System.arraycopy(idBytes, 0, block, blockLength, idBytes.length);
+            blockLength += idBytes.length;
+            newIds[i] = null;
+        }
+
+        writeVarint(rows);
+        writeIdRuns();
+
+        for (int i = 0; i < rows; i++)
+            writeVarint(errors[i]);
+
+        for (int i = 0; i < rows; i++)
+            writeVarint(encodeDifference(trials[i] - (i > 0 ? trials[i-1] : 0)));
+
+        writeCompressed();
+        dictionaryWritten = dictionary.size();
+        rows = 0;
+    }
+
+    /**
+     * Writes the id column as runs of rows with the same id
+     */
+    private void writeIdRuns()
+    {
+        int runs = 0;
+
+        for (int i = 0; i < rows; i++)
+            if (i == 0 || ids[i] != ids[i-1])
+                runs++;
+
+        writeVarint(runs);
+        int start = 0;
+
+        for (int i = 1; i <= rows; i++)
+        {
+            if (i == rows || ids[i] != ids[start])
+            {
+                writeVarint(ids[start]);
+                writeVarint(i - start);
+                start = i;
+            }
+        }
+    }
+
+    /**
+     * Compresses a block and writes it with its raw and compressed lengths
+     */
+    private void writeCompressed() throws IOException
+    {
+        deflater.reset();
+        deflater.setInput(block, 0, blockLength);
+        deflater.finish();
+        int length = 0;
+
+        while (!deflater.finished())
+        {
+            if (length == compressed.length)
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+
+        writeHeaderVarint(blockLength);
+        writeHeaderVarint(length);
+        output.write(compressed, 0, length);
+    }
+
+    /**
+     * Writes any buffered results as a block
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        writeBlock();
+        output.flush();
+    }
+
+    /**
+     * Writes any buffered results and closes the file
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            deflater.end();
+            output.close();
+        }
+    }
+
+    /**
+     * Writes a non-negative integer to the current block using seven bits per byte
+     */
+    private void writeVarint(int value)
+    {
+        ensureCapacity(5);
+
+        while ((value & ~0x7F) != 0)
+        {
+            block[blockLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        block[blockLength++] = (byte) value;
+    }
+
+    /**
+     * Maps a difference to a non-negative integer, alternating positive and negative values
+     */
+    private static int encodeDifference(int difference)
+    {
+        return (difference << 1) ^ (difference >> 31);
+    }
+
+    /**
+     * Makes room for a number of bytes in the current block
+     */
+    private void ensureCapacity(int bytes)
+    {
+        if (blockLength + bytes > block.length)
+            block = Arrays.copyOf(block, Math.max(block.length * 2, blockLength + bytes));
+    }
+
+    /**
+     * Writes a non-negative integer to the file using seven bits per byte
+     */
+    private void writeHeaderVarint(int value) throws IOException
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        output.write(value);
+    }
+}
\ No newline at end of file
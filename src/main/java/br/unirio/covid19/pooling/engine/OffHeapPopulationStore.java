@@ -0,0 +1,228 @@
+package br.unirio.covid19.pooling.engine;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import br.unirio.covid19.pooling.model.simulation.Individual;
+
+/**
+ * Class that keeps the positive probability and the state of a large population of
+ * individuals outside the Java heap, either in direct buffers or in a memory-mapped
+ * file. Each individual takes 9 bytes: the positive probability as a double and a
+ * byte with its state flags and the number of confirmations.
+ */
+public class OffHeapPopulationStore
+{
+    /**
+     * Number of individuals in each buffer (probabilities take 128 MB per buffer)
+     */
+    private static final int INDIVIDUALS_PER_CHUNK = 1 << 24;
+
+    private static final int POSITIVE = 0x01;
+
+    private static final int RESOLVED = 0x02;
+
+    private static final int TESTED_POSITIVE = 0x04;
+
+    private static final int CONFIRMATIONS_SHIFT = 3;
+
+    private static final int MAX_CONFIRMATIONS = 0xFF >> CONFIRMATIONS_SHIFT;
+
+    /**
+     * Number of individuals in the population
+     */
+    private int size;
+
+    /**
+     * Positive probability of the individuals
+     */
+    private ByteBuffer[] probabilities;
+
+    /**
+     * State flags and confirmations of the individuals
+     */
+    private ByteBuffer[] states;
+
+    /**
+     * Initializes the store with the buffers holding its data
+     */
+    private OffHeapPopulationStore(int size, ByteBuffer[] probabilities, ByteBuffer[] states)
+    {
+        this.size = size;
+        this.probabilities = probabilities;
+        this.states = states;
+    }
+
+    /**
+     * Creates a store for a number of individuals in direct buffers
+     */
+    public static OffHeapPopulationStore allocate(int size)
+    {
+        int chunks = countChunks(size);
+        ByteBuffer[] probabilities = new ByteBuffer[chunks];
+        ByteBuffer[] states = new ByteBuffer[chunks];
+
+        for (int i = 0; i < chunks; i++)
+        {
+            int individuals = countIndividualsInChunk(size, i);
+            probabilities[i] = ByteBuffer.allocateDirect(individuals * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            states[i] = ByteBuffer.allocateDirect(individuals);
+        }
+
+        return new OffHeapPopulationStore(size, probabilities, states);
+    }
+
+    /**
+     * Creates a store for a number of individuals backed by a memory-mapped file. The file
+     * holds all probabilities followed by all states, and is created or resized as needed.
+     */
+    public static OffHeapPopulationStore map(String filename, int size) throws IOException
+    {
+        int chunks = countChunks(size);
+        ByteBuffer[] probabilities = new ByteBuffer[chunks];
+        ByteBuffer[] states = new ByteBuffer[chunks];
+        long statesOffset = (long) size * Double.BYTES;
+
+        try (RandomAccessFile file = new RandomAccessFile(filename, "rw"))
+        {
+            file.setLength(statesOffset + size);
+            FileChannel channel = file.getChannel();
+
+            for (int i = 0; i < chunks; i++)
+            {
+                int individuals = countIndividualsInChunk(size, i);
+                long first = (long) i * INDIVIDUALS_PER_CHUNK;
+                probabilities[i] = channel.map(FileChannel.MapMode.READ_WRITE, first * Double.BYTES, (long) individuals * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                states[i] = channel.map(FileChannel.MapMode.READ_WRITE, statesOffset + first, individuals);
+            }
+        }
+
+        return new OffHeapPopulationStore(size, probabilities, states);
+    }
+
+    /**
+     * Counts the buffers required for a number of individuals
+     */
+    private static int countChunks(int size)
+    {
+        return (size + INDIVIDUALS_PER_CHUNK - 1) / INDIVIDUALS_PER_CHUNK;
+    }
+
+    /**
+     * Counts the individuals held by a given buffer
+     */
+    private static int countIndividualsInChunk(int size, int chunk)
+    {
+        return Math.min(INDIVIDUALS_PER_CHUNK, size - chunk * INDIVIDUALS_PER_CHUNK);
+    }
+
+    /**
+     * Returns the number of individuals in the store
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the positive probability of an individual
+     */
+    public double getPositiveProbability(int index)
+    {
+        return probabilities[index / INDIVIDUALS_PER_CHUNK].getDouble((index % INDIVIDUALS_PER_CHUNK) * Double.BYTES);
+    }
+
+    /**
+     * Sets the positive probability of an individual
+     */
+    public void setPositiveProbability(int index, double positiveProbability)
+    {
+        probabilities[index / INDIVIDUALS_PER_CHUNK].putDouble((index % INDIVIDUALS_PER_CHUNK) * Double.BYTES, positiveProbability);
+    }
+
+    /**
+     * Returns the state byte of an individual
+     */
+    private int getState(int index)
+    {
+        return states[index / INDIVIDUALS_PER_CHUNK].get(index % INDIVIDUALS_PER_CHUNK) & 0xFF;
+    }
+
+    /**
+     * Sets the state byte of an individual
+     */
+    private void setState(int index, int state)
+    {
+        states[index / INDIVIDUALS_PER_CHUNK].put(index % INDIVIDUALS_PER_CHUNK, (byte) state);
+    }
+
+    /**
+     * Clears the state of an individual, indicating whether it is positive
+     */
+    public void reset(int index, boolean positive)
+    {
+        setState(index, positive ? POSITIVE : 0);
+    }
+
+    /**
+     * Determines whether an individual is positive
+     */
+    public boolean isPositive(int index)
+    {
+        return (getState(index) & POSITIVE) != 0;
+    }
+
+    /**
+     * Determines whether an individual has been resolved
+     */
+    public boolean isResolved(int index)
+    {
+        return (getState(index) & RESOLVED) != 0;
+    }
+
+    /**
+     * Determines whether an individual has tested positive
+     */
+    public boolean isTestedPositive(int index)
+    {
+        return (getState(index) & TESTED_POSITIVE) != 0;
+    }
+
+    /**
+     * Creates an individual holding the data of the individual in a given position
+     */
+    public Individual readIndividual(int index)
+    {
+        int state = getState(index);
+        Individual individual = new Individual(index + 1);
+        individual.setPositiveProbability(getPositiveProbability(index));
+        individual.setPositive((state & POSITIVE) != 0);
+        individual.setResolved((state & RESOLVED) != 0);
+        individual.setTestedPositive((state & TESTED_POSITIVE) != 0);
+        individual.setConfirmations(state >> CONFIRMATIONS_SHIFT);
+        return individual;
+    }
+
+    /**
+     * Saves the state of an individual created by readIndividual
+     */
+    public void writeIndividual(Individual individual)
+    {
+        int state = 0;
+
+        if (individual.isPositive())
+            state |= POSITIVE;
+
+        if (individual.isResolved())
+            state |= RESOLVED;
+
+        if (individual.isTestedPositive())
+            state |= TESTED_POSITIVE;
+
+        state |= Math.min(individual.getConfirmations(), MAX_CONFIRMATIONS) << CONFIRMATIONS_SHIFT;
+        setState(individual.getNumber() - 1, state);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,423 @@
+package br.unirio.covid19.pooling.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Class that loads a file with one positive probability per line. The file is split
+ * in chunks aligned to line breaks, which are memory-mapped and parsed in parallel
+ * directly from their bytes. Malformed lines are reported after all valid lines have
+ * been loaded.
+ */
+public class ProbabilityFileLoader
+{
+    /**
+     * Interface that receives the probabilities loaded from the file
+     */
+    public interface ProbabilityConsumer
+    {
+        void accept(int index, double positiveProbability);
+    }
+
+    /**
+     * Number of bytes in each chunk of the file
+     */
+    private static final int CHUNK_SIZE = 16 << 20;
+
+    /**
+     * Maximum number of malformed lines described in the error message
+     */
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    /**
+     * Powers of ten that are exactly represented as doubles
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Number of threads used to parse the file
+     */
+    private int threads;
+
+    /**
+     * Initializes the loader
+     */
+    public ProbabilityFileLoader(int threads)
+    {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Loads the probabilities in a file, returning the number of lines read. Throws an
+     * exception describing the malformed lines, if any, or if the file has more lines
+     * than the maximum number of individuals.
+     */
+    public int load(String filename, int maxIndividuals, ProbabilityConsumer consumer) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ))
+        {
+            long[] boundaries = calculateChunkBoundaries(channel);
+            int chunkCount = boundaries.length - 1;
+            MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+
+            for (int i = 0; i < chunkCount; i++)
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, boundaries[i], boundaries[i+1] - boundaries[i]);
+
+            ForkJoinPool executor = new ForkJoinPool(threads);
+
+            try
+            {
+                List<Callable<Integer>> countTasks = new ArrayList<Callable<Integer>>();
+
+                for (int i = 0; i < chunkCount; i++)
+                {
+                    ByteBuffer chunk = chunks[i].duplicate();
+                    countTasks.add(() -> countLines(chunk));
+                }
+
+                List<Integer> lineCounts = invokeAll(executor, countTasks);
+                int[] firstLines = new int[chunkCount];
+                int lineCount = 0;
+
+                for (int i = 0; i < chunkCount; i++)
+                {
+                    firstLines[i] = lineCount;
+                    lineCount += lineCounts.get(i);
+                }
+
+                List<Callable<Integer>> parseTasks = new ArrayList<Callable<Integer>>();
+                List<List<String>> errors = new ArrayList<List<String>>();
+
+                for (int i = 0; i < chunkCount; i++)
+                {
+                    ByteBuffer chunk = chunks[i].duplicate();
+                    int firstLine = firstLines[i];
+                    List<String> chunkErrors = new ArrayList<String>();
+                    errors.add(chunkErrors);
+                    parseTasks.add(() -> parseLines(chunk, firstLine, maxIndividuals, consumer, chunkErrors));
+                }
+
+                int errorCount = 0;
+
+                for (int chunkErrorCount : invokeAll(executor, parseTasks))
+                    errorCount += chunkErrorCount;
+
+                if (lineCount > maxIndividuals)
+                {
+                    errorCount++;
+                    errors.add(0, Collections.singletonList("file has " + lineCount + " probabilities for " + maxIndividuals + " individuals"));
+                }
+
+                if (errorCount > 0)
+                    throw new IOException(describeErrors(filename, errorCount, errors));
+
+                return lineCount;
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Calculates the positions where chunks start, each one just after a line break
+     */
+    private long[] calculateChunkBoundaries(FileChannel channel) throws IOException
+    {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<Long>();
+        boundaries.add(0L);
+
+        long position = CHUNK_SIZE;
+
+        while (position < size)
+        {
+            long lineStart = findNextLineStart(channel, position, size);
+
+            if (lineStart >= size)
+                break;
+
+            boundaries.add(lineStart);
+            position = lineStart + CHUNK_SIZE;
+        }
+
+        boundaries.add(size);
+        long[] result = new long[boundaries.size()];
+
+        for (int i = 0; i < result.length; i++)
+            result[i] = boundaries.get(i);
+
+        return result;
+    }
+
+    /**
+     * Finds the position after the first line break at or after a given position
+     */
+    private long findNextLineStart(FileChannel channel, long position, long size) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+        while (position < size)
+        {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+
+            for (int i = 0; i < read; i++)
+                if (buffer.get(i) == '\n')
+                    return position + i + 1;
+
+            position += Math.max(read, 0);
+        }
+
+        return size;
+    }
+
+    /**
+     * Counts the lines in a chunk, including a last line without a line break
+     */
+    private int countLines(ByteBuffer chunk)
+    {
+        int limit = chunk.limit();
+        int lines = 0;
+
+        for (int i = 0; i < limit; i++)
+            if (chunk.get(i) == '\n')
+                lines++;
+
+        if (limit > 0 && chunk.get(limit - 1) != '\n')
+            lines++;
+
+        return lines;
+    }
+
+    /**
+     * Parses the lines in a chunk, returning the number of malformed lines and keeping the
+     * description of the first ones
+     */
+    private int parseLines(ByteBuffer chunk, int firstLine, int maxIndividuals, ProbabilityConsumer consumer, List<String> errors)
+    {
+        int errorCount = 0;
+        int limit = chunk.limit();
+        int lineIndex = firstLine;
+        int start = 0;
+
+        while (start < limit)
+        {
+            int end = start;
+
+            while (end < limit && chunk.get(end) != '\n')
+                end++;
+
+            if (lineIndex < maxIndividuals)
+            {
+                double value = parseProbability(chunk, start, end);
+
+                if (!Double.isNaN(value))
+                    consumer.accept(lineIndex, value);
+                else if (errorCount++ < MAX_REPORTED_ERRORS)
+                    errors.add("line " + (lineIndex + 1) + ": '" + readText(chunk, start, end) + "'");
+            }
+
+            lineIndex++;
+            start = end + 1;
+        }
+
+        return errorCount;
+    }
+
+    /**
+     * Parses a probability from the bytes of a line, returning NaN if the line does not
+     * hold a number between 0 and 1. Numbers with up to 15 significant digits and small
+     * exponents are converted exactly without creating strings.
+     */
+    private double parseProbability(ByteBuffer chunk, int start, int end)
+    {
+        while (start < end && isBlank(chunk.get(start)))
+            start++;
+
+        while (end > start && isBlank(chunk.get(end - 1)))
+            end--;
+
+        if (start == end)
+            return Double.NaN;
+
+        double value = parseSimpleDecimal(chunk, start, end);
+
+        if (Double.isNaN(value))
+        {
+            try
+            {
+                value = Double.parseDouble(readText(chunk, start, end));
+            }
+            catch (NumberFormatException e)
+            {
+                return Double.NaN;
+            }
+        }
+
+        if (!(value >= 0.0 && value <= 1.0))
+            return Double.NaN;
+
+        return value;
+    }
+
+    /**
+     * Parses a decimal number in the form [+-]digits[.digits][e[+-]digits], returning NaN
+     * if the text has another form or cannot be converted exactly
+     */
+    private double parseSimpleDecimal(ByteBuffer chunk, int start, int end)
+    {
+        int i = start;
+        boolean negative = false;
+
+        if (chunk.get(i) == '-' || chunk.get(i) == '+')
+        {
+            negative = (chunk.get(i) == '-');
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+
+        while (i < end && isDigit(chunk.get(i)))
+        {
+            mantissa = mantissa * 10 + (chunk.get(i++) - '0');
+            digits++;
+        }
+
+        if (i < end && chunk.get(i) == '.')
+        {
+            i++;
+
+            while (i < end && isDigit(chunk.get(i)))
+            {
+                mantissa = mantissa * 10 + (chunk.get(i++) - '0');
+                digits++;
+                exponent--;
+            }
+        }
+
+        if (digits == 0 || digits > 15)
+            return Double.NaN;
+
+        if (i < end && (chunk.get(i) == 'e' || chunk.get(i) == 'E'))
+        {
+            i++;
+            boolean negativeExponent = false;
+
+            if (i < end && (chunk.get(i) == '-' || chunk.get(i) == '+'))
+            {
+                negativeExponent = (chunk.get(i) == '-');
+                i++;
+            }
+
+            int explicitExponent = 0;
+            int exponentDigits = 0;
+
+            while (i < end && isDigit(chunk.get(i)) && exponentDigits < 4)
+            {
+                explicitExponent = explicitExponent * 10 + (chunk.get(i++) - '0');
+                exponentDigits++;
+            }
+
+            if (exponentDigits == 0)
+                return Double.NaN;
+
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (i != end || exponent < -22 || exponent > 22)
+            return Double.NaN;
+
+        double value = (exponent < 0) ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Determines whether a byte is a decimal digit
+     */
+    private boolean isDigit(byte b)
+    {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Determines whether a byte is a blank character
+     */
+    private boolean isBlank(byte b)
+    {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * Reads part of a chunk as text
+     */
+    private String readText(ByteBuffer chunk, int start, int end)
+    {
+        byte[] bytes = new byte[end - start];
+
+        for (int i = start; i < end; i++)
+            bytes[i - start] = chunk.get(i);
+
+        return new String(bytes, StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Describes the errors found in the file
+     */
+    private String describeErrors(String filename, int errorCount, List<List<String>> errors)
+    {
+        StringBuilder message = new StringBuilder("Malformed probability file " + filename + " (" + errorCount + " errors)");
+        int reported = 0;
+
+        for (List<String> chunkErrors : errors)
+        {
+            for (int i = 0; i < chunkErrors.size() && reported < MAX_REPORTED_ERRORS; i++, reported++)
+                message.append("\n  ").append(chunkErrors.get(i));
+        }
+
+        return message.toString();
+    }
+
+    /**
+     * Runs a list of tasks, returning their results in order
+     */
+    private <T> List<T> invokeAll(ForkJoinPool executor, List<Callable<T>> tasks) throws IOException
+    {
+        try
+        {
+            List<T> results = new ArrayList<T>();
+
+            for (Future<T> future : executor.invokeAll(tasks))
+                results.add(future.get());
+
+            return results;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading probabilities", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IOException("Error while loading probabilities", e.getCause());
+        }
+    }
+}
\ No newline at end of file
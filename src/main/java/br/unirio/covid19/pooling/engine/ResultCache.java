@@ -0,0 +1,186 @@
+package br.unirio.covid19.pooling.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import br.unirio.covid19.pooling.model.simulation.Strategy;
+import lombok.Getter;
+
+/**
+ * Class that keeps the results of simulations in a directory, indexed by the SHA-256
+ * hash of a canonical description of their configuration. Descriptions include the
+ * version of the engine, so results are recomputed whenever the engine changes. Only
+ * simulations whose random streams are keyed by their configuration can be cached.
+ */
+public class ResultCache
+{
+    private Path directory;
+    private @Getter int hits;
+    private @Getter int misses;
+
+    /**
+     * Initializes a cache on a directory, creating it if needed
+     */
+    public ResultCache(String directory) throws IOException
+    {
+        this.directory = Paths.get(directory);
+        this.hits = 0;
+        this.misses = 0;
+        Files.createDirectories(this.directory);
+    }
+
+    /**
+     * Creates the canonical description of a simulation configuration. The population is
+     * described by its size and by a prevalence or the hash of a probability file.
+     */
+    public static String describe(int population, String source, Strategy strategy, double falseNegativeProbability, double falsePositiveProbability, int rounds, long seed, int scenario)
+    {
+        return "engine=" + Simulator.ENGINE_VERSION + "\n"
+            + "population=" + population + "\n"
+            + "source=" + source + "\n"
+            + "strategy=" + strategy.getName() + "\n"
+            + "false-negative=" + falseNegativeProbability + "\n"
+            + "false-positive=" + falsePositiveProbability + "\n"
+            + "rounds=" + rounds + "\n"
+            + "seed=" + seed + "\n"
+            + "scenario=" + scenario + "\n";
+    }
+
+    /**
+     * Returns the results of a configuration, or null if they are not in the cache
+     */
+    public SimulationResult get(String configuration) throws IOException
+    {
+        Path file = getFile(configuration);
+
+        if (!Files.exists(file))
+        {
+            misses++;
+            return null;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+        {
+            if (!input.readUTF().equals(configuration))
+            {
+                misses++;
+                return null;
+            }
+
+            SimulationResult results = new SimulationResult();
+            int count = input.readInt();
+
+            for (int i = 0; i < count; i++)
+            {
+                int trials = input.readInt();
+                int errors = input.readInt();
+                results.add(trials, errors);
+            }
+
+            hits++;
+            return results;
+        }
+    }
+
+    /**
+     * Stores the results of a configuration. Results are written to a temporary file that
+     * replaces the cached file at once, so that concurrent processes never read a
+     * partial file.
+     */
+    public void put(String configuration, SimulationResult results) throws IOException
+    {
+        Path file = getFile(configuration);
+        Files.createDirectories(file.getParent());
+        Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+
+        try
+        {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary))))
+            {
+                output.writeUTF(configuration);
+                results.save(output);
+            }
+
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Returns the file of a configuration, in a subdirectory named by its first hash digits
+     */
+    private Path getFile(String configuration)
+    {
+        String hash = hash(configuration.getBytes(StandardCharsets.UTF_8));
+        return directory.resolve(hash.substring(0, 2)).resolve(hash + ".result");
+    }
+
+    /**
+     * Calculates the SHA-256 hash of the contents of a file
+     */
+    public static String hashFile(String filename) throws IOException
+    {
+        MessageDigest digest = createDigest();
+        byte[] buffer = new byte[1 << 16];
+
+        try (InputStream input = Files.newInputStream(Paths.get(filename)))
+        {
+            int read;
+
+            while ((read = input.read(buffer)) > 0)
+                digest.update(buffer, 0, read);
+        }
+
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Calculates the SHA-256 hash of a sequence of bytes
+     */
+    private static String hash(byte[] bytes)
+    {
+        return toHex(createDigest().digest(bytes));
+    }
+
+    /**
+     * Creates a SHA-256 digest, which every Java platform is required to support
+     */
+    private static MessageDigest createDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Converts a hash to hexadecimal digits
+     */
+    private static String toHex(byte[] bytes)
+    {
+        StringBuilder hex = new StringBuilder();
+
+        for (byte b : bytes)
+            hex.append(String.format("%02x", b));
+
+        return hex.toString();
+    }
+}
\ No newline at end of file
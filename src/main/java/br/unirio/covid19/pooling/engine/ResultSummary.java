@@ -0,0 +1,82 @@
+package br.unirio.covid19.pooling.engine;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Class that summarizes simulation results grouped by an identifier, which may have
+ * several tab-separated columns. Groups are saved in the order they were first added,
+ * either as final statistics or as the partial sums from which they can be merged.
+ */
+public class ResultSummary
+{
+    /**
+     * Columns of the final statistics and of the partial sums
+     */
+    public static final String STATISTICS_HEADER = "rounds\tmean\tsd\tci95\teconomy\terror-rate";
+    public static final String SUMS_HEADER = "rounds\tindividuals\ttrials\ttrial-squares\terrors";
+
+    private Map<String, SummaryStatistics> groups;
+
+    /**
+     * Initializes an empty summary
+     */
+    public ResultSummary()
+    {
+        this.groups = new LinkedHashMap<String, SummaryStatistics>();
+    }
+
+    /**
+     * Returns the statistics of a group, creating them on first use
+     */
+    public SummaryStatistics getGroup(String groupId)
+    {
+        return groups.computeIfAbsent(groupId, id -> new SummaryStatistics());
+    }
+
+    /**
+     * Adds the rounds of a simulation with a number of individuals to a group
+     */
+    public void add(String groupId, int population, SimulationResult results)
+    {
+        results.summarize(getGroup(groupId), population);
+    }
+
+    /**
+     * Saves the final statistics of all groups
+     */
+    public void save(String filename, String groupHeader) throws IOException
+    {
+        try (FileWriter writer = new FileWriter(filename))
+        {
+            writer.write(groupHeader + "\t" + STATISTICS_HEADER + "\n");
+
+            for (Map.Entry<String, SummaryStatistics> entry : groups.entrySet())
+            {
+                SummaryStatistics statistics = entry.getValue();
+                writer.write(entry.getKey() + "\t" + statistics.getRounds());
+                writer.write(String.format(Locale.US, "\t%.4f\t%.4f\t%.4f\t%.4f\t%.6f\n", statistics.getMeanTrials(), statistics.getTrialStandardDeviation(), statistics.getTrialConfidenceInterval(), statistics.getEconomy(), statistics.getErrorRate()));
+            }
+        }
+    }
+
+    /**
+     * Saves the partial sums of all groups
+     */
+    public void saveSums(String filename, String groupHeader) throws IOException
+    {
+        try (FileWriter writer = new FileWriter(filename))
+        {
+            writer.write(groupHeader + "\t" + SUMS_HEADER + "\n");
+
+            for (Map.Entry<String, SummaryStatistics> entry : groups.entrySet())
+            {
+                SummaryStatistics statistics = entry.getValue();
+                writer.write(entry.getKey() + "\t" + statistics.getRounds() + "\t" + statistics.getIndividuals() + "\t" + statistics.getTrials() + "\t" + statistics.getTrialSquares() + "\t" + statistics.getErrors() + "\n");
+            }
+        }
+    }
+}
\ No newline at end of file
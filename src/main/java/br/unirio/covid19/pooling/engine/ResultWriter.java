@@ -0,0 +1,21 @@
+package br.unirio.covid19.pooling.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Interface that represents an output for the results of simulation rounds, each one
+ * identified by a round id that may have several tab-separated columns
+ */
+public interface ResultWriter extends Closeable
+{
+    /**
+     * Writes the result of a round
+     */
+    void write(String roundId, int errors, int trials) throws IOException;
+
+    /**
+     * Writes any buffered results
+     */
+    void flush() throws IOException;
+}
\ No newline at end of file
@@ -0,0 +1,260 @@
+package br.unirio.covid19.pooling.engine;
+
+import java.util.List;
+
+import br.unirio.covid19.pooling.events.DecodeEvent;
+import br.unirio.covid19.pooling.model.pooling.AdaptivePoolingModel;
+import br.unirio.covid19.pooling.model.pooling.PoolingModel;
+import br.unirio.covid19.pooling.model.simulation.Individual;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
+import br.unirio.covid19.pooling.model.simulation.TestingSet;
+import br.unirio.covid19.pooling.model.simulation.TestingSetDecoder;
+import br.unirio.covid19.pooling.model.simulation.TrialEvaluator;
+import br.unirio.covid19.pooling.utils.RandomStream;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Class that simulates the trials of groups of individuals, either from the testing
+ * set of a pooling model or requested by adaptive pooling models, and resolves the
+ * individuals from their results. Each evaluator draws its errors from its own
+ * random number stream, so that distinct evaluators can run in parallel.
+ */
+class SimulatedTrialEvaluator implements TrialEvaluator
+{
+    /**
+     * Indicates whether testing sets are evaluated with bit-packed masks, which can be
+     * disabled with the system property pooling.kernel=scalar
+     */
+    private static final boolean BIT_PACKED_KERNEL = !"scalar".equals(System.getProperty("pooling.kernel"));
+
+    /**
+     * Probability of a false negative result in the test
+     */
+    private double falseNegativeProbability;
+    
+    /**
+     * Probability of a false positive result in the test
+     */
+    private double falsePositiveProbability;
+
+    /**
+     * Random number stream used to simulate test errors
+     */
+    private RandomStream random;
+
+    /**
+     * Indicates that none of the individuals being tested is positive
+     */
+    private @Setter boolean withoutPositives;
+
+    /**
+     * Number of trials executed by the evaluator
+     */
+    private @Getter int trials;
+
+    /**
+     * Initializes the evaluator
+     */
+    public SimulatedTrialEvaluator(double falseNegativeProbability, double falsePositiveProbability, RandomStream random)
+    {
+        this.falseNegativeProbability = falseNegativeProbability;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.random = random;
+        this.withoutPositives = false;
+        this.trials = 0;
+    }
+
+    /**
+     * Runs the trials of a pooling model on a group of individuals
+     */
+    public void testGroup(IndividualGroup group, PoolingModel model)
+    {
+        if (model instanceof AdaptivePoolingModel)
+        {
+            ((AdaptivePoolingModel) model).runAdaptiveTrials(group, this);
+        }
+        else if (model.isSingleTrialDesign(group.countIndividuals()))
+        {
+            testSingleTrialGroup(group);
+        }
+        else
+        {
+            TestingSet testingSet = model.getTestingSet(group.countIndividuals());
+            boolean[] trialResults = BIT_PACKED_KERNEL ? calculateTestResultsWithMasks(group, testingSet) : calculateTestResults(group, testingSet);
+            calculateIndividualResults(trialResults, testingSet, group);
+            trials += testingSet.getTrials();
+        }
+    }
+
+    /**
+     * Tests all individuals of a group in a single trial. A negative result resolves all
+     * individuals as negative, while a positive result resolves only a lone individual.
+     */
+    private void testSingleTrialGroup(IndividualGroup group)
+    {
+        int individualCount = group.countIndividuals();
+        boolean correctResultIsPositive = false;
+
+        for (int i = 0; !withoutPositives && !correctResultIsPositive && i < individualCount; i++)
+        {
+            if (group.getIndividualByIndex(i).isPositive())
+            {
+                correctResultIsPositive = true;
+            }
+        }
+
+        trials++;
+
+        if (!applyTestErrors(correctResultIsPositive))
+        {
+            for (int i = 0; i < individualCount; i++)
+                group.getIndividualByIndex(i).resolve(false);
+        }
+        else if (individualCount == 1)
+        {
+            group.getIndividualByIndex(0).resolve(true);
+        }
+    }
+
+    /**
+     * Runs a trial on a pool of individuals
+     */
+    @Override
+    public boolean runTrial(List<Individual> pool)
+    {
+        boolean correctResultIsPositive = false;
+        int poolSize = pool.size();
+
+        for (int i = 0; !correctResultIsPositive && i < poolSize; i++)
+        {
+            if (pool.get(i).isPositive())
+            {
+                correctResultIsPositive = true;
+            }
+        }
+
+        trials++;
+        return applyTestErrors(correctResultIsPositive);
+    }
+
+    /**
+     * Changes the correct result of a trial according to the error probabilities
+     */
+    public boolean applyTestErrors(boolean correctResultIsPositive)
+    {
+        boolean result = correctResultIsPositive;
+
+        if (result)
+        {
+            if (random.nextDouble() < falseNegativeProbability)
+                result = false;
+        }
+        else
+        {
+            if (random.nextDouble() < falsePositiveProbability)
+                result = true;
+        }
+
+        return result;
+    }
+
+    /**
+     * Calculates the result of all trials in a testing group
+     */
+    private boolean[] calculateTestResults(IndividualGroup group, TestingSet testingSet) 
+    {
+        int trialCount = testingSet.getTrials();
+        boolean[] trialResults = new boolean[trialCount];
+
+        for (int trial = 0; trial < trialCount; trial++) 
+            trialResults[trial] = calculateTrialResult(trial, group, testingSet);
+
+        return trialResults;
+    }
+
+    /**
+     * Calculates the result of all trials in a testing group using bit-packed masks
+     */
+    private boolean[] calculateTestResultsWithMasks(IndividualGroup group, TestingSet testingSet)
+    {
+        long[][] trialMasks = testingSet.getTrialMasks();
+        long[] positives = BitPackedTrialKernel.createPositiveMask(group, (testingSet.getIndividuals() + 63) >>> 6);
+        boolean[] trialResults = new boolean[trialMasks.length];
+
+        for (int trial = 0; trial < trialMasks.length; trial++)
+            trialResults[trial] = applyTestErrors(!withoutPositives && BitPackedTrialKernel.includesPositive(trialMasks[trial], positives));
+
+        return trialResults;
+    }
+
+    /**
+     * Calculates the result of a trial based on the individuals in the group and error probabilities
+     */
+    private boolean calculateTrialResult(int trialIndex, IndividualGroup group, TestingSet testingSet) 
+    {
+        boolean correctResultIsPositive = false;
+        int[] individualsInTrial = testingSet.getIndividualsInTrial(trialIndex);
+
+        for (int i = 0; !correctResultIsPositive && i < individualsInTrial.length; i++)
+        {
+            if (group.getIndividualByIndex(individualsInTrial[i]).isPositive())
+            {
+                correctResultIsPositive = true;
+            }
+        }
+
+        return applyTestErrors(correctResultIsPositive);
+    }
+
+    /**
+     * Calculates the results of a group of individuals from the results of a set of trials
+     */
+    private void calculateIndividualResults(boolean[] trialResults, TestingSet testingSet, IndividualGroup group) 
+    {
+        DecodeEvent event = new DecodeEvent();
+        event.begin();
+
+        if (BIT_PACKED_KERNEL)
+            BitPackedTrialKernel.decode(trialResults, testingSet, group);
+        else
+            TestingSetDecoder.decode(trialResults, testingSet, group);
+
+        if (event.isEnabled())
+        {
+            event.setIndividuals(group.countIndividuals());
+            event.setTrials(trialResults.length);
+            event.setPositiveTrials(countPositiveTrials(trialResults));
+            event.setIndividualsResolved(countResolvedIndividuals(group));
+            event.commit();
+        }
+    }
+
+    /**
+     * Counts the trials with positive results
+     */
+    private int countPositiveTrials(boolean[] trialResults)
+    {
+        int count = 0;
+
+        for (boolean result : trialResults)
+            if (result)
+                count++;
+
+        return count;
+    }
+
+    /**
+     * Counts the resolved individuals in a group
+     */
+    private int countResolvedIndividuals(IndividualGroup group)
+    {
+        int count = 0;
+
+        for (Individual individual : group.getIndividuals())
+            if (individual.isResolved())
+                count++;
+
+        return count;
+    }
+}
\ No newline at end of file
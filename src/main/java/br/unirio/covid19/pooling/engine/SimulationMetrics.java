@@ -0,0 +1,185 @@
+package br.unirio.covid19.pooling.engine;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import br.unirio.covid19.pooling.model.pooling.PoolingModel;
+
+/**
+ * Class that publishes live counters of the simulations as MBeans in the platform
+ * MBean server, so that long sweeps can be watched from a JMX console. Besides the
+ * global counters, each strategy has its own MBean with its trials and errors.
+ */
+public class SimulationMetrics implements SimulationMetricsMBean
+{
+    /**
+     * Domain of the names of the MBeans
+     */
+    private static final String DOMAIN = "br.unirio.covid19.pooling";
+
+    /**
+     * Single instance, registered when first used
+     */
+    private static final SimulationMetrics instance = new SimulationMetrics();
+
+    private LongAdder rounds;
+    private LongAdder individuals;
+    private LongAdder trials;
+    private LongAdder errors;
+    private Map<String, StrategyMetrics> strategies;
+
+    /**
+     * Time of the first and last rounds, in nanoseconds
+     */
+    private volatile long firstRoundTime;
+    private volatile long lastRoundTime;
+
+    /**
+     * Initializes the counters and registers the MBean
+     */
+    private SimulationMetrics()
+    {
+        this.rounds = new LongAdder();
+        this.individuals = new LongAdder();
+        this.trials = new LongAdder();
+        this.errors = new LongAdder();
+        this.strategies = new ConcurrentHashMap<String, StrategyMetrics>();
+        this.firstRoundTime = 0;
+        this.lastRoundTime = 0;
+        register(this, "type=Simulation");
+    }
+
+    /**
+     * Returns the metrics of the process
+     */
+    public static SimulationMetrics getInstance()
+    {
+        return instance;
+    }
+
+    /**
+     * Returns the metrics of a strategy, creating and registering them when first used
+     */
+    public StrategyMetrics getStrategyMetrics(String strategy)
+    {
+        return strategies.computeIfAbsent(strategy, this::createStrategyMetrics);
+    }
+
+    /**
+     * Adds the results of a simulation round of a strategy
+     */
+    public void addRound(StrategyMetrics strategy, int individualCount, int trialCount, int errorCount)
+    {
+        long now = System.nanoTime();
+
+        if (firstRoundTime == 0)
+            firstRoundTime = now;
+
+        lastRoundTime = now;
+        rounds.increment();
+        individuals.add(individualCount);
+        trials.add(trialCount);
+        errors.add(errorCount);
+        strategy.addRound(trialCount, errorCount);
+    }
+
+    /**
+     * Creates and registers the metrics of a strategy
+     */
+    private StrategyMetrics createStrategyMetrics(String strategy)
+    {
+        StrategyMetrics metrics = new StrategyMetrics(strategy);
+        register(metrics, "type=Strategy,name=" + ObjectName.quote(strategy));
+        return metrics;
+    }
+
+    /**
+     * Registers an MBean in the platform server. Simulations run normally if the
+     * server is not available.
+     */
+    private static void register(Object mbean, String properties)
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+
+            if (!server.isRegistered(name))
+                server.registerMBean(mbean, name);
+        }
+        catch (JMException | SecurityException e)
+        {
+            System.err.println("Could not register simulation metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the seconds elapsed since the first round
+     */
+    private double getElapsedSeconds()
+    {
+        return (firstRoundTime == 0) ? 0.0 : (System.nanoTime() - firstRoundTime) / 1e9;
+    }
+
+    @Override
+    public long getRoundsCompleted()
+    {
+        return rounds.sum();
+    }
+
+    @Override
+    public double getRoundsPerSecond()
+    {
+        double elapsed = getElapsedSeconds();
+        return (elapsed > 0) ? rounds.sum() / elapsed : 0.0;
+    }
+
+    @Override
+    public long getIndividualsSimulated()
+    {
+        return individuals.sum();
+    }
+
+    @Override
+    public double getIndividualsPerSecond()
+    {
+        double elapsed = getElapsedSeconds();
+        return (elapsed > 0) ? individuals.sum() / elapsed : 0.0;
+    }
+
+    @Override
+    public long getTrials()
+    {
+        return trials.sum();
+    }
+
+    @Override
+    public long getErrors()
+    {
+        return errors.sum();
+    }
+
+    @Override
+    public long getTestingSetCacheHits()
+    {
+        return PoolingModel.getTestingSetCacheHits();
+    }
+
+    @Override
+    public long getTestingSetCacheMisses()
+    {
+        return PoolingModel.getTestingSetCacheMisses();
+    }
+
+    @Override
+    public double getSecondsSinceLastRound()
+    {
+        return (lastRoundTime == 0) ? 0.0 : (System.nanoTime() - lastRoundTime) / 1e9;
+    }
+}
\ No newline at end of file
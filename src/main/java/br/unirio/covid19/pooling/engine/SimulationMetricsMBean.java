@@ -0,0 +1,25 @@
+package br.unirio.covid19.pooling.engine;
+
+/**
+ * Management interface with the counters of all simulations run in the process
+ */
+public interface SimulationMetricsMBean
+{
+    long getRoundsCompleted();
+
+    double getRoundsPerSecond();
+
+    long getIndividualsSimulated();
+
+    double getIndividualsPerSecond();
+
+    long getTrials();
+
+    long getErrors();
+
+    long getTestingSetCacheHits();
+
+    long getTestingSetCacheMisses();
+
+    double getSecondsSinceLastRound();
+}
\ No newline at end of file
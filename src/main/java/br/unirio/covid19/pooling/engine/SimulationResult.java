@@ -1,5 +1,6 @@
 package br.unirio.covid19.pooling.engine;
 
+import java.io.DataOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -38,6 +39,38 @@ public class SimulationResult
         cycleResults.add(new SimulationCycleResult(trials, errors));
     }
 
+    /**
+     * Saves the results of all cycles
+     */
+    public void save(ResultWriter writer, String roundId) throws IOException
+    {
+        for (SimulationCycleResult cycle : cycleResults)
+            writer.write(roundId, cycle.getErrors(), cycle.getTrials());
+    }
+
+    /**
+     * Saves the number of cycles and the trials and errors of each cycle in binary form
+     */
+    public void save(DataOutputStream output) throws IOException
+    {
+        output.writeInt(cycleResults.size());
+
+        for (SimulationCycleResult cycle : cycleResults)
+        {
+            output.writeInt(cycle.getTrials());
+            output.writeInt(cycle.getErrors());
+        }
+    }
+
+    /**
+     * Adds the results of all cycles, each with a number of individuals, to a summary
+     */
+    public void summarize(SummaryStatistics statistics, int population)
+    {
+        for (SimulationCycleResult cycle : cycleResults)
+            statistics.add(population, cycle.getTrials(), cycle.getErrors());
+    }
+
     /**
      * Saves the results of all cycles
      */
@@ -2,22 +2,54 @@ package br.unirio.covid19.pooling.engine;
 
 import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import br.unirio.covid19.pooling.events.RoundEvent;
+import br.unirio.covid19.pooling.events.StageEvent;
 import br.unirio.covid19.pooling.model.simulation.Individual;
 import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
 import br.unirio.covid19.pooling.model.simulation.IndividualGroupList;
 import br.unirio.covid19.pooling.model.simulation.Strategy;
-import br.unirio.covid19.pooling.model.simulation.TestingSet;
 import br.unirio.covid19.pooling.model.pooling.OneByOneModel;
 import br.unirio.covid19.pooling.model.pooling.PoolingModel;
+import br.unirio.covid19.pooling.utils.CounterBasedRandom;
 import br.unirio.covid19.pooling.utils.PseudoRandom;
+import br.unirio.covid19.pooling.utils.RandomStream;
 
-public class Simulator 
+public class Simulator implements AutoCloseable
 {
+    /**
+     * Version of the simulation engine, which must be incremented whenever a change to
+     * the engine or to the pooling models alters the results of a simulation
+     */
+    public static final int ENGINE_VERSION = 2;
+
+    /**
+     * Number of groups evaluated by each parallel task in a testing stage
+     */
+    private static final int GROUPS_PER_CHUNK = 256;
+
+    /**
+     * Approximate number of individuals brought to the heap at a time from an off-heap
+     * population
+     */
+    private static final int WINDOW_SIZE = 1 << 20;
+
+    /**
+     * Purposes of the random streams of a round, when streams are keyed by round. Each
+     * testing stage draws test errors from its own purpose, after the last one.
+     */
+    private static final int POPULATION_STREAM = 0;
+    private static final int SHUFFLE_STREAM = 1;
+    private static final int TEST_ERROR_STREAM = 2;
+
     /**
      * Number of individuals under evaluation
      */
@@ -28,6 +60,26 @@ public class Simulator
      */
     private List<Individual> individuals;
 
+    /**
+     * Off-heap store holding the individuals, used instead of the list for large populations
+     */
+    private OffHeapPopulationStore store;
+
+    /**
+     * Individuals not yet resolved in the current round
+     */
+    private UnresolvedIndividualSet unresolved;
+
+    /**
+     * Number of positive individuals not yet resolved in the current round
+     */
+    private int unresolvedPositives;
+
+    /**
+     * Indicates that probabilities have changed since individuals were last ranked
+     */
+    private boolean rankingOutdated;
+
     /**
      * Probability of a false negative result in the test
      */
@@ -38,6 +90,47 @@ public class Simulator
      */
     private double falsePositiveProbability;
 
+    /**
+     * Number of threads used to evaluate the groups of a testing stage
+     */
+    private int threads;
+
+    /**
+     * Thread pool used to evaluate groups in parallel, if more than one thread is used
+     */
+    private ExecutorService executor;
+
+    /**
+     * Indicates whether the thread pool was created by the simulator and must be shut
+     * down when it is closed
+     */
+    private boolean ownedExecutor;
+
+    /**
+     * Indicates whether random streams are keyed by seed, scenario and round, instead of
+     * being drawn in sequence from the main generator
+     */
+    private boolean keyedRandom;
+
+    /**
+     * Seed and scenario of the keyed random streams
+     */
+    private long randomSeed;
+    private int randomScenario;
+
+    /**
+     * Random streams used to sample the population and to shuffle individuals in a round
+     */
+    private RandomStream populationRandom;
+    private RandomStream shuffleRandom;
+
+    /**
+     * Current round, testing stage in the round and chunk of groups in the stage
+     */
+    private int roundNumber;
+    private int stageNumber;
+    private int chunkNumber;
+
     /**
      * Initializes the simulator
      */
@@ -45,8 +138,96 @@ public class Simulator
     {
         this.individualCount = individualCount;
         this.individuals = createIndividuals(individualCount);
+        this.store = null;
+        this.unresolved = new UnresolvedIndividualSet(individualCount);
+        this.rankingOutdated = true;
         this.falseNegativeProbability = falseNegativeProbability;
         this.falsePositiveProbability = falsePositiveProbability;
+        this.threads = 1;
+        this.executor = null;
+        this.ownedExecutor = false;
+        this.keyedRandom = false;
+    }
+
+    /**
+     * Initializes the simulator for a population kept in an off-heap store. Only pooling
+     * models that split individuals into groups of a fixed size run on such a population.
+     */
+    public Simulator(OffHeapPopulationStore store, double falseNegativeProbability, double falsePositiveProbability)
+    {
+        this.individualCount = store.size();
+        this.individuals = null;
+        this.store = store;
+        this.unresolved = new UnresolvedIndividualSet(individualCount);
+        this.rankingOutdated = false;
+        this.falseNegativeProbability = falseNegativeProbability;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.threads = 1;
+        this.executor = null;
+        this.ownedExecutor = false;
+        this.keyedRandom = false;
+    }
+
+    /**
+     * Sets the number of threads used to evaluate the groups of each testing stage, using
+     * a thread pool owned by the simulator and shut down when it is closed. With more than
+     * one thread, stages with many groups split them in chunks of fixed size and each
+     * chunk draws its test errors from a random stream seeded by the main generator. The
+     * results are the same for any number of threads above one, but differ from those of
+     * a single thread, which draws test errors from the main generator. Keyed random
+     * streams give the same results for any number of threads.
+     */
+    public Simulator setThreads(int threads)
+    {
+        return setThreads(threads, (threads > 1) ? new ForkJoinPool(threads) : null, true);
+    }
+
+    /**
+     * Sets the number of threads used to evaluate the groups of each testing stage and a
+     * thread pool shared with other simulators, which is not shut down by this simulator
+     */
+    public Simulator setThreads(int threads, ExecutorService executor)
+    {
+        return setThreads(threads, executor, false);
+    }
+
+    /**
+     * Replaces the thread pool, shutting down the previous one if owned by the simulator
+     */
+    private Simulator setThreads(int threads, ExecutorService executor, boolean ownedExecutor)
+    {
+        close();
+        this.threads = threads;
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+        return this;
+    }
+
+    /**
+     * Shuts down the thread pool if it was created by the simulator. Stages of later
+     * rounds run their chunks of groups in sequence, with the same results.
+     */
+    @Override
+    public void close()
+    {
+        if (ownedExecutor && executor != null)
+        {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Keys the random streams of each round by a seed, a scenario and the round number,
+     * using a counter-based generator. Any round can then be replayed alone, and results
+     * are the same for any number of threads or order of execution.
+     */
+    public Simulator setRandomKey(long seed, int scenario)
+    {
+        this.keyedRandom = true;
+        this.randomSeed = seed;
+        this.randomScenario = scenario;
+        return this;
     }
 
     /**
@@ -71,10 +252,7 @@ public class Simulator
     public Simulator setPositiveProbability(double positiveProbability)
     {
         for (int i = 0; i < individualCount; i++)
-        {
-            Individual individual = individuals.get(i);
-            individual.setPositiveProbability(positiveProbability);
-        }
+            setPositiveProbability(i, positiveProbability);
 
         return this;
     }
@@ -84,8 +262,15 @@ public class Simulator
      */
     public Simulator setPositiveProbability(int index, double positiveProbability)
     {
+        if (store != null)
+        {
+            store.setPositiveProbability(index, positiveProbability);
+            return this;
+        }
+
         Individual individual = individuals.get(index);
         individual.setPositiveProbability(positiveProbability);
+        rankingOutdated = true;
         return this;
     }
 
@@ -95,35 +280,19 @@ public class Simulator
     public Simulator loadPositiveProbability(double[] probability) 
     {
         for (int i = 0; i < individualCount; i++)
-        {
-            Individual individual = individuals.get(i);
-            individual.setPositiveProbability(probability[i]);
-        }
+            setPositiveProbability(i, probability[i]);
 
 		return this;
 	}
 
     /**
-     * Loads a file with positive probabiilities for each individual
+     * Loads a file with positive probabiilities for each individual, one per line. The
+     * file is parsed in parallel using the simulator threads. Malformed lines and files
+     * with more lines than individuals are reported after the valid lines are loaded.
      */
-    public Simulator loadPositiveProbability(String filename)
+    public Simulator loadPositiveProbability(String filename) throws IOException
     {
-        try
-        {
-            String contents = new String(Files.readAllBytes(Paths.get(filename)));
-            String[] lines = contents.split("\n");
-
-            for (int i = 0; i < lines.length; i++)
-            {
-                double positiveProbability = Double.parseDouble(lines[i]);
-                Individual individual = individuals.get(i);
-                individual.setPositiveProbability(positiveProbability);
-            }
-        }
-        catch(Exception e)
-        {
-        }        
-
+        new ProbabilityFileLoader(threads).load(filename, individualCount, this::setPositiveProbability);
         return this;
     }
 
@@ -134,10 +303,9 @@ public class Simulator
     {
         double maxPositiveProbability = 0.0;
 
-        for (int i = 0; i < individuals.size(); i++)
+        for (int i = 0; i < individualCount; i++)
         {
-            Individual individual = individuals.get(i);
-            double positiveProbability = individual.getPositiveProbability();
+            double positiveProbability = (store != null) ? store.getPositiveProbability(i) : individuals.get(i).getPositiveProbability();
 
             if (positiveProbability > maxPositiveProbability)
                 maxPositiveProbability = positiveProbability;
@@ -171,34 +339,124 @@ public class Simulator
      */
     public SimulationResult run(int rounds, Strategy strategy)
     {
+        return run(0, rounds, strategy);
+    }
+
+    /**
+     * Runs a number of simulation rounds starting from a given round number. With keyed
+     * random streams, a round produces the same results whatever rounds ran before it.
+     */
+    public SimulationResult run(int firstRound, int rounds, Strategy strategy)
+    {
+        if (store != null)
+            checkOffHeapModels(strategy);
+
+        if (rankingOutdated)
+            rankIndividuals();
+
         SimulationResult results = new SimulationResult();
+        StrategyMetrics metrics = SimulationMetrics.getInstance().getStrategyMetrics(strategy.getName());
 
-        for (int round = 0; round < rounds; round++)
-            runRound(results, round, strategy);
+        for (int round = firstRound; round < firstRound + rounds; round++)
+            runRound(results, round, strategy, metrics);
 
         return results;
     }
 
     /**
-     * Runs a simulation round
+     * Ranks individuals by their positive probability, breaking ties by their number, so
+     * that pooling models can order them without sorting in every round. Individuals in
+     * an off-heap store are not ranked.
      */
-    private void runRound(SimulationResult results, int round, Strategy strategy)
+    private void rankIndividuals()
     {
+        List<Individual> ranking = new ArrayList<Individual>(individuals);
+        ranking.sort(Comparator.comparingDouble(Individual::getPositiveProbability));
+
+        for (int i = 0; i < ranking.size(); i++)
+            ranking.get(i).setProbabilityRank(i);
+
+        rankingOutdated = false;
+    }
+
+    /**
+     * Runs a simulation round, adding its results to the metrics of the strategy
+     */
+    private void runRound(SimulationResult results, int round, Strategy strategy, StrategyMetrics metrics)
+    {
+        RoundEvent event = new RoundEvent();
+        event.begin();
+        startRandomStreams(round);
+
+        if (store != null)
+        {
+            runOffHeapRound(results, strategy, metrics, event);
+            return;
+        }
+
         clearIndividuals();
         randomizeIndividuals();
+        unresolved.reset();
         int trialCount = 0;
 
         for (int i = 0; i < strategy.countModels(); i++)
         {
             PoolingModel ts = strategy.getTestingModelForIndex(i);
-            trialCount += runTestingModel(individuals, ts);
+            trialCount += runTestingModel(ts);
         }
 
         PoolingModel ts = new OneByOneModel();
-        trialCount += runTestingModel(individuals, ts);
+        trialCount += runTestingModel(ts);
 
         int errorCount = countErrors(individuals);
+        addRoundResults(results, metrics, trialCount, errorCount, event);
+    }
+
+    /**
+     * Prepares the random streams of a round
+     */
+    private void startRandomStreams(int round)
+    {
+        roundNumber = round;
+        stageNumber = 0;
+
+        if (keyedRandom)
+        {
+            populationRandom = new CounterBasedRandom(randomSeed, randomScenario, round, POPULATION_STREAM);
+            shuffleRandom = new CounterBasedRandom(randomSeed, randomScenario, round, SHUFFLE_STREAM);
+        }
+        else
+        {
+            populationRandom = PseudoRandom.getGenerator();
+            shuffleRandom = populationRandom;
+        }
+    }
+
+    /**
+     * Creates the random stream of test errors for the next chunk of groups in a stage
+     */
+    private RandomStream createChunkRandom()
+    {
+        if (keyedRandom)
+            return new CounterBasedRandom(randomSeed, randomScenario, roundNumber, TEST_ERROR_STREAM + stageNumber, chunkNumber++);
+
+        return PseudoRandom.createStream(PseudoRandom.randLong());
+    }
+
+    /**
+     * Adds the results of a simulation round and publishes them to the metrics and
+     * to the flight recorder
+     */
+    private void addRoundResults(SimulationResult results, StrategyMetrics metrics, int trialCount, int errorCount, RoundEvent event)
+    {
         results.add(trialCount, errorCount);
+        SimulationMetrics.getInstance().addRound(metrics, individualCount, trialCount, errorCount);
+
+        event.setStrategy(metrics.getStrategy());
+        event.setIndividuals(individualCount);
+        event.setTrials(trialCount);
+        event.setErrors(errorCount);
+        event.commit();
     }
 
     /**
@@ -217,247 +475,308 @@ public class Simulator
      */
     private void randomizeIndividuals() 
     {
+        unresolvedPositives = 0;
+
         for (int i = 0; i < individualCount; i++)
         {
             Individual individual = individuals.get(i);
-            boolean isPositive = (PseudoRandom.randDouble() <= individual.getPositiveProbability());
+            boolean isPositive = (populationRandom.nextDouble() <= individual.getPositiveProbability());
             individual.setPositive(isPositive);
+
+            if (isPositive)
+                unresolvedPositives++;
         }
     }
 
     /**
-     * Runs a testing model in a simulation round
+     * Runs a testing model in a simulation round on the shuffled unresolved individuals
      */
-    private int runTestingModel(List<Individual> allIndividuals, PoolingModel ts)
+    private int runTestingModel(PoolingModel ts)
     {
-        int trialCount = 0;
+        StageEvent stage = beginStage(ts);
+        unresolved.shuffle(shuffleRandom);
+        List<Individual> unresolvedIndividuals = new ArrayList<Individual>(unresolved.size());
 
-        List<Individual> unresolvedIndividuals = collectUnresolvedIndividuals(allIndividuals);
-        shuffle(unresolvedIndividuals);
+        for (int i = 0; i < unresolved.size(); i++)
+            unresolvedIndividuals.add(individuals.get(unresolved.get(i)));
 
-        if (unresolvedIndividuals.size() > 0)
-        {
-            IndividualGroupList groups = ts.splitIndividualsIntoGroups(unresolvedIndividuals);
+        int trialCount = testIndividuals(unresolvedIndividuals, ts, stage);
+        int resolvedCount = removeResolvedIndividuals(unresolvedIndividuals);
+        stage.add(0, 0, resolvedCount);
+        stage.commit();
+        return trialCount;
+    }
 
-            for (IndividualGroup group : groups.getGroups())
-            {
-                TestingSet testingSet = ts.createTestingSet(group.countIndividuals());
-                boolean[] trialResults = calculateTestResults(group, testingSet);    
-                calculateIndividualResults(trialResults, testingSet, group);
-                trialCount += testingSet.getTrials();
-            }
+    /**
+     * Starts the flight recorder event of a testing stage
+     */
+    private StageEvent beginStage(PoolingModel ts)
+    {
+        stageNumber++;
+        chunkNumber = 0;
+        StageEvent stage = new StageEvent();
+        stage.begin();
+
+        if (stage.isEnabled())
+        {
+            stage.setModelClass(ts.getClass());
+            stage.setModel(ts.toString());
+            stage.setIndividuals(unresolved.size());
         }
 
-        return trialCount;
+        return stage;
     }
 
     /**
-     * Collects all unresolved individuals into a list
+     * Removes the individuals resolved in a testing stage from the unresolved set,
+     * returning their number
      */
-    private List<Individual> collectUnresolvedIndividuals(List<Individual> allIndividuals) 
+    private int removeResolvedIndividuals(List<Individual> testedIndividuals)
     {
-        List<Individual> unresolved = new ArrayList<Individual>();
+        int resolvedCount = 0;
 
-        for (Individual individual : allIndividuals)
+        for (Individual individual : testedIndividuals)
         {
-            if (!individual.isResolved())
+            if (individual.isResolved())
             {
-                unresolved.add(individual);
+                unresolved.remove(individual.getNumber() - 1);
+                resolvedCount++;
+
+                if (individual.isPositive())
+                    unresolvedPositives--;
             }
         }
 
-        return unresolved;
+        return resolvedCount;
     }
 
     /**
-     * Calculates the result of all trials in a testing group
+     * Splits unresolved individuals into groups and runs the trials of a testing model
      */
-    private boolean[] calculateTestResults(IndividualGroup group, TestingSet testingSet) 
+    private int testIndividuals(List<Individual> unresolvedIndividuals, PoolingModel ts, StageEvent stage)
     {
-        int trialCount = testingSet.getTrials();
-        boolean[] trialResults = new boolean[trialCount];
+        int trialCount = 0;
+
+        if (unresolvedIndividuals.size() > 0)
+        {
+            IndividualGroupList groups = ts.splitIndividualsIntoGroups(unresolvedIndividuals);
+
+            if (keyedRandom || (threads > 1 && groups.countGroups() > GROUPS_PER_CHUNK))
+            {
+                trialCount = runParallelTestingModel(groups, ts);
+            }
+            else
+            {
+                SimulatedTrialEvaluator evaluator = new SimulatedTrialEvaluator(falseNegativeProbability, falsePositiveProbability, PseudoRandom.getGenerator());
+                evaluator.setWithoutPositives(unresolvedPositives == 0);
 
-        for (int trial = 0; trial < trialCount; trial++) 
-            trialResults[trial] = calculateTrialResult(trial, group, testingSet);
+                for (IndividualGroup group : groups.getGroups())
+                    evaluator.testGroup(group, ts);
 
-        return trialResults;
+                trialCount = evaluator.getTrials();
+            }
+
+            stage.add(groups.countGroups(), trialCount, 0);
+        }
+
+        return trialCount;
     }
 
     /**
-     * Calculates the result of a trial based on the individuals in the group and error probabilities
+     * Runs a testing model on chunks of groups in parallel, adding the trials of all chunks.
+     * Each chunk has its own random stream; with a single thread, chunks run in sequence.
      */
-    private boolean calculateTrialResult(int trialIndex, IndividualGroup group, TestingSet testingSet) 
+    private int runParallelTestingModel(IndividualGroupList groups, PoolingModel ts)
     {
-        boolean correctResultIsPositive = false;
-        int groupSize = group.countIndividuals();
+        int groupCount = groups.countGroups();
+        List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        int trialCount = 0;
 
-        for (int i = 0; !correctResultIsPositive && i < groupSize; i++)
+        for (int first = 0; first < groupCount; first += GROUPS_PER_CHUNK)
         {
-            if (testingSet.isIndividualInTrial(i, trialIndex)) 
-            {
-                if (group.getIndividualByIndex(i).isPositive())
-                {
-                    correctResultIsPositive = true;
-                }
-            }
+            int firstGroup = first;
+            int lastGroup = Math.min(first + GROUPS_PER_CHUNK, groupCount);
+            RandomStream random = createChunkRandom();
+            SimulatedTrialEvaluator evaluator = new SimulatedTrialEvaluator(falseNegativeProbability, falsePositiveProbability, random);
+            evaluator.setWithoutPositives(unresolvedPositives == 0);
+
+            if (executor == null)
+                trialCount += runChunk(groups, firstGroup, lastGroup, ts, evaluator);
+            else
+                tasks.add(() -> runChunk(groups, firstGroup, lastGroup, ts, evaluator));
         }
 
-        boolean result = correctResultIsPositive;
+        if (tasks.isEmpty())
+            return trialCount;
 
-        if (result)
+        try
         {
-            if (PseudoRandom.randDouble() < falseNegativeProbability)
-                result = false;
+            for (Future<Integer> result : executor.invokeAll(tasks))
+                trialCount += result.get();
+
+            return trialCount;
         }
-        else
+        catch (InterruptedException e)
         {
-            if (PseudoRandom.randDouble() < falsePositiveProbability)
-                result = true;
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating groups", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("Error while evaluating groups", e.getCause());
         }
-
-        return result;
     }
 
     /**
-     * Calculates the results of a group of individuals from the results of a set of trials
+     * Runs a testing model on a chunk of groups, returning the number of trials
      */
-    private void calculateIndividualResults(boolean[] trialResults, TestingSet testingSet, IndividualGroup group) 
+    private int runChunk(IndividualGroupList groups, int firstGroup, int lastGroup, PoolingModel ts, SimulatedTrialEvaluator evaluator)
     {
-        // all the variables present in at least one negative pool are tagged negative
-        resolveIndividualsInNegativeTrials(trialResults, testingSet, group);
+        for (int i = firstGroup; i < lastGroup; i++)
+            evaluator.testGroup(groups.getGroupByIndex(i), ts);
 
-        // any variable present in at least one positive pool where all other variables have been tagged negative, is tagged positive
-        resolveSinglePositiveInPositiveTrial(trialResults, testingSet, group);
+        return evaluator.getTrials();
     }
 
     /**
-     * Mark all individuals in negative trials as resolved
+     * Count the number of wrongly assessed individuals
      */
-    private void resolveIndividualsInNegativeTrials(boolean[] trialResults, TestingSet testingSet, IndividualGroup group) 
+    private int countErrors(List<Individual> allIndividuals) 
     {
-        int individuals = testingSet.getIndividuals();
-        int trials = testingSet.getTrials();
+        int count = 0;
 
-        /*for (int i = 0; i < trials; i++)
+        for (Individual individual : allIndividuals)
         {
-            if (!trialResults[i])
+            if (!individual.isResolved() || individual.isPositive() != individual.isTestedPositive())
             {
-                for (int j = 0; j < individuals; j++)
-                {
-                    if (testingSet.isIndividualInTrial(j, i))
-                    {
-                        Individual individual = group.getIndividualByIndex(j);
-                        individual.setResolved(true);
-                        individual.setTestedPositive(false);
-                        individual.setConfirmationLevel(individual.getConfirmationLevel() + 1);
-                    }
-                }
+                count++;
             }
-        }*/
+        }
+
+        return count;
+    }
 
-        for (int i = 0; i < individuals; i++)
+    /**
+     * Runs a simulation round on a population kept in an off-heap store
+     */
+    private void runOffHeapRound(SimulationResult results, Strategy strategy, StrategyMetrics metrics, RoundEvent event)
+    {
+        randomizeStoredIndividuals();
+        unresolved.reset();
+        int trialCount = 0;
+
+        for (int i = 0; i < strategy.countModels(); i++)
         {
-            int countNegativeTrials = 0;
-            int countTrials = 0;
+            PoolingModel ts = strategy.getTestingModelForIndex(i);
+            trialCount += runStoredTestingModel(ts);
+        }
 
-            for (int j = 0; j < trials; j++)
-            {
-                if (testingSet.isIndividualInTrial(i, j))
-                {
-                    countTrials++;
+        PoolingModel ts = new OneByOneModel();
+        trialCount += runStoredTestingModel(ts);
 
-                    if (!trialResults[j])
-                        countNegativeTrials++;
-                }
-            }
+        int errorCount = countStoredErrors();
+        addRoundResults(results, metrics, trialCount, errorCount, event);
+    }
 
-            if (countTrials == countNegativeTrials)
-            {
-                Individual individual = group.getIndividualByIndex(i);
-                individual.setResolved(true);
-                individual.setTestedPositive(false);
-                individual.setConfirmations(individual.getConfirmations() + 1);
-            }
+    /**
+     * Clears the state of the stored individuals, indicating whether they are positive
+     */
+    private void randomizeStoredIndividuals()
+    {
+        unresolvedPositives = 0;
+
+        for (int i = 0; i < individualCount; i++)
+        {
+            boolean isPositive = (populationRandom.nextDouble() <= store.getPositiveProbability(i));
+            store.reset(i, isPositive);
+
+            if (isPositive)
+                unresolvedPositives++;
         }
     }
 
     /**
-     * Mark unresolved individuals as positive all others are negative in a positive trial
+     * Checks that the models of a strategy may run on an off-heap population, which is
+     * split into windows. Models whose groups depend on the whole list of individuals,
+     * such as those sorting individuals by positive probability, would form different
+     * groups in each window and are rejected.
      */
-    private void resolveSinglePositiveInPositiveTrial(boolean[] trialResults, TestingSet testingSet, IndividualGroup group) 
+    private void checkOffHeapModels(Strategy strategy)
     {
-        int individuals = testingSet.getIndividuals();
-        int trials = testingSet.getTrials();
+        for (int i = 0; i < strategy.countModels(); i++)
+        {
+            PoolingModel ts = strategy.getTestingModelForIndex(i);
+
+            if (ts.getFixedGroupSize() < 1)
+                throw new IllegalArgumentException("Pooling model " + ts + " does not use groups of a fixed size and cannot run on an off-heap population");
+        }
+    }
+
+    /**
+     * Runs a testing model on the stored individuals. Unresolved individuals are shuffled
+     * by index and brought to the heap in windows, so that only one window of individuals
+     * exists as objects at any time. Windows hold whole chunks of groups of the model, so
+     * that groups and their chunks are the same as if all individuals were split at once.
+     */
+    private int runStoredTestingModel(PoolingModel ts)
+    {
+        StageEvent stage = beginStage(ts);
+        unresolved.shuffle(shuffleRandom);
+        long chunkSize = (long) ts.getFixedGroupSize() * GROUPS_PER_CHUNK;
+        int windowSize = (int) Math.min(Integer.MAX_VALUE, Math.max(1, WINDOW_SIZE / chunkSize) * chunkSize);
+        int[] window = new int[Math.min(windowSize, unresolved.size())];
+        int unresolvedCount = unresolved.size();
+        int trialCount = 0;
+
+        for (int first = 0; first < unresolvedCount; first += windowSize)
+        {
+            int last = Math.min(first + windowSize, unresolvedCount);
+
+            for (int i = first; i < last; i++)
+                window[i - first] = unresolved.get(i);
+
+            List<Individual> windowIndividuals = new ArrayList<Individual>(last - first);
+
+            for (int i = 0; i < last - first; i++)
+                windowIndividuals.add(store.readIndividual(window[i]));
+
+            trialCount += testIndividuals(windowIndividuals, ts, stage);
 
-        for (int i = 0; i < trials; i++)
+            for (Individual individual : windowIndividuals)
+                store.writeIndividual(individual);
+        }
+
+        for (int i = unresolvedCount - 1; i >= 0; i--)
         {
-            if (trialResults[i])
+            int individual = unresolved.get(i);
+
+            if (store.isResolved(individual))
             {
-                int individualCount = 0;
-                int negativeCount = 0;
-                int positiveCount = 0;
-                Individual positiveIndividual = null;
-
-                for (int j = 0; j < individuals; j++)
-                {
-                    if (testingSet.isIndividualInTrial(j, i))
-                    {
-                        individualCount++;
-                        Individual individual = group.getIndividualByIndex(j);
-
-                        if (!individual.isResolved())
-                        {
-                            positiveCount++;
-                            positiveIndividual = individual;
-                        }
-                        else if (!individual.isTestedPositive())
-                        {
-                            negativeCount++;
-                        }
-                    }
-                }
-
-                if (positiveCount == 1 && negativeCount == individualCount-1)
-                {
-                    positiveIndividual.setResolved(true);
-                    positiveIndividual.setTestedPositive(true);
-                    positiveIndividual.setConfirmations(positiveIndividual.getConfirmations() + 1);
-                }
+                unresolved.remove(individual);
+                stage.add(0, 0, 1);
+
+                if (store.isPositive(individual))
+                    unresolvedPositives--;
             }
         }
+
+        stage.commit();
+        return trialCount;
     }
 
     /**
-     * Count the number of wrongly assessed individuals
+     * Count the number of wrongly assessed stored individuals
      */
-    private int countErrors(List<Individual> allIndividuals) 
+    private int countStoredErrors()
     {
         int count = 0;
 
-        for (Individual individual : allIndividuals)
+        for (int i = 0; i < individualCount; i++)
         {
-            if (!individual.isResolved() || individual.isPositive() != individual.isTestedPositive())
-            {
+            if (!store.isResolved(i) || store.isPositive(i) != store.isTestedPositive(i))
                 count++;
-            }
         }
 
         return count;
     }
-
-	/**
-	 * Shuffles a list of objects
-	 */
-	private void shuffle(List<Individual> individuals)
-	{
-		int len = individuals.size();
-
-		for (int i = 0; i < len; i++) 
-		{
-            int indexToSwap = PseudoRandom.randInt(0, len-1);
-            Individual temp = individuals.get(indexToSwap);
-			individuals.set(indexToSwap, individuals.get(i));
-			individuals.set(i, temp);
-		}
-	}
 }
\ No newline at end of file
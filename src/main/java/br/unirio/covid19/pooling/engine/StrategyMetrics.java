@@ -0,0 +1,73 @@
+package br.unirio.covid19.pooling.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class that counts the rounds, trials and errors of the simulations of a strategy
+ */
+public class StrategyMetrics implements StrategyMetricsMBean
+{
+    private String strategy;
+    private LongAdder rounds;
+    private LongAdder trials;
+    private LongAdder errors;
+
+    /**
+     * Initializes the counters of a strategy
+     */
+    public StrategyMetrics(String strategy)
+    {
+        this.strategy = strategy;
+        this.rounds = new LongAdder();
+        this.trials = new LongAdder();
+        this.errors = new LongAdder();
+    }
+
+    /**
+     * Adds the results of a simulation round
+     */
+    public void addRound(int trialCount, int errorCount)
+    {
+        rounds.increment();
+        trials.add(trialCount);
+        errors.add(errorCount);
+    }
+
+    @Override
+    public String getStrategy()
+    {
+        return strategy;
+    }
+
+    @Override
+    public long getRoundsCompleted()
+    {
+        return rounds.sum();
+    }
+
+    @Override
+    public long getTrials()
+    {
+        return trials.sum();
+    }
+
+    @Override
+    public long getErrors()
+    {
+        return errors.sum();
+    }
+
+    @Override
+    public double getAverageTrials()
+    {
+        long roundCount = rounds.sum();
+        return (roundCount > 0) ? (double) trials.sum() / roundCount : 0.0;
+    }
+
+    @Override
+    public double getAverageErrors()
+    {
+        long roundCount = rounds.sum();
+        return (roundCount > 0) ? (double) errors.sum() / roundCount : 0.0;
+    }
+}
\ No newline at end of file
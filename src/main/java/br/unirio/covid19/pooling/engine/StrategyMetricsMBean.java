@@ -0,0 +1,19 @@
+package br.unirio.covid19.pooling.engine;
+
+/**
+ * Management interface with the counters of the simulations of a strategy
+ */
+public interface StrategyMetricsMBean
+{
+    String getStrategy();
+
+    long getRoundsCompleted();
+
+    long getTrials();
+
+    long getErrors();
+
+    double getAverageTrials();
+
+    double getAverageErrors();
+}
\ No newline at end of file
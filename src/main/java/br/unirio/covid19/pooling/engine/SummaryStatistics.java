@@ -0,0 +1,131 @@
+package br.unirio.covid19.pooling.engine;
+
+import lombok.Getter;
+
+/**
+ * Class that summarizes the rounds of a group of simulations. Only integer sums are
+ * kept, so that summaries calculated in any order or split across processes can be
+ * merged into exactly the same summary.
+ */
+public class SummaryStatistics
+{
+    /**
+     * Quantile of the normal distribution used by the 95% confidence interval
+     */
+    private static final double CONFIDENCE_QUANTILE = 1.959963984540054;
+
+    /**
+     * Number of rounds
+     */
+    private @Getter long rounds;
+
+    /**
+     * Sum of the number of individuals of all rounds
+     */
+    private @Getter long individuals;
+
+    /**
+     * Sum of the number of trials of all rounds
+     */
+    private @Getter long trials;
+
+    /**
+     * Sum of the squared number of trials of all rounds
+     */
+    private @Getter long trialSquares;
+
+    /**
+     * Sum of the number of errors of all rounds
+     */
+    private @Getter long errors;
+
+    /**
+     * Initializes an empty summary
+     */
+    public SummaryStatistics()
+    {
+        this(0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Initializes a summary from its sums
+     */
+    public SummaryStatistics(long rounds, long individuals, long trials, long trialSquares, long errors)
+    {
+        this.rounds = rounds;
+        this.individuals = individuals;
+        this.trials = trials;
+        this.trialSquares = trialSquares;
+        this.errors = errors;
+    }
+
+    /**
+     * Adds a round with a number of individuals, trials and errors. Throws an exception if
+     * the sums no longer fit a long.
+     */
+    public void add(int population, int roundTrials, int roundErrors)
+    {
+        rounds++;
+        individuals += population;
+        trials += roundTrials;
+        trialSquares = Math.addExact(trialSquares, (long) roundTrials * roundTrials);
+        errors += roundErrors;
+    }
+
+    /**
+     * Adds the rounds of another summary
+     */
+    public void merge(SummaryStatistics other)
+    {
+        rounds += other.rounds;
+        individuals += other.individuals;
+        trials += other.trials;
+        trialSquares = Math.addExact(trialSquares, other.trialSquares);
+        errors += other.errors;
+    }
+
+    /**
+     * Returns the average number of trials per round
+     */
+    public double getMeanTrials()
+    {
+        return (double) trials / rounds;
+    }
+
+    /**
+     * Returns the sample standard deviation of the number of trials per round
+     */
+    public double getTrialStandardDeviation()
+    {
+        if (rounds < 2)
+            return 0.0;
+
+        double mean = getMeanTrials();
+        double variance = (trialSquares - mean * trials) / (rounds - 1);
+        return Math.sqrt(Math.max(variance, 0.0));
+    }
+
+    /**
+     * Returns the half-width of the 95% confidence interval of the average number of trials
+     */
+    public double getTrialConfidenceInterval()
+    {
+        return CONFIDENCE_QUANTILE * getTrialStandardDeviation() / Math.sqrt(rounds);
+    }
+
+    /**
+     * Returns the percentage of trials saved in relation to testing each individual
+     */
+    public double getEconomy()
+    {
+        return 100.0 - trials * 100.0 / individuals;
+    }
+
+    /**
+     * Returns the fraction of individuals wrongly assessed
+     */
+    public double getErrorRate()
+    {
+        return (double) errors / individuals;
+    }
+}
\ No newline at end of file
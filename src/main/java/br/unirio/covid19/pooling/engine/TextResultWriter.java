@@ -0,0 +1,54 @@
+package br.unirio.covid19.pooling.engine;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Class that writes the results of simulation rounds as tab-separated text, one row
+ * per round, in the same format as {@link SimulationResult#save(FileWriter, String)}
+ */
+public class TextResultWriter implements ResultWriter
+{
+    private Writer writer;
+
+    /**
+     * Creates a text file with a header line
+     */
+    public TextResultWriter(String filename, String header) throws IOException
+    {
+        this.writer = new BufferedWriter(new FileWriter(filename));
+        this.writer.write(header + "\n");
+    }
+
+    /**
+     * Writes the result of a round
+     */
+    @Override
+    public void write(String roundId, int errors, int trials) throws IOException
+    {
+        if (roundId.length() > 0)
+            writer.write(roundId + "\t");
+
+        writer.write(errors + "\t" + trials + "\n");
+    }
+
+    /**
+     * Writes any buffered results
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        writer.flush();
+    }
+
+    /**
+     * Closes the file
+     */
+    @Override
+    public void close() throws IOException
+    {
+        writer.close();
+    }
+}
\ No newline at end of file
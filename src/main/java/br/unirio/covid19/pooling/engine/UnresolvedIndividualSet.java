@@ -0,0 +1,99 @@
+package br.unirio.covid19.pooling.engine;
+
+import br.unirio.covid19.pooling.utils.RandomStream;
+
+/**
+ * Class that keeps the indices of the individuals that have not been resolved in a
+ * simulation round. Individuals are removed in constant time as they are resolved, so
+ * that each testing stage costs time proportional to the individuals still unresolved.
+ */
+class UnresolvedIndividualSet
+{
+    /**
+     * Indices of the unresolved individuals in the first positions
+     */
+    private int[] indices;
+
+    /**
+     * Position of each individual in the indices array, or -1 if it has been resolved
+     */
+    private int[] positions;
+
+    /**
+     * Number of unresolved individuals
+     */
+    private int size;
+
+    /**
+     * Initializes the set for a number of individuals, all of them unresolved
+     */
+    public UnresolvedIndividualSet(int individualCount)
+    {
+        this.indices = new int[individualCount];
+        this.positions = new int[individualCount];
+        reset();
+    }
+
+    /**
+     * Marks all individuals as unresolved
+     */
+    public void reset()
+    {
+        for (int i = 0; i < indices.length; i++)
+        {
+            indices[i] = i;
+            positions[i] = i;
+        }
+
+        size = indices.length;
+    }
+
+    /**
+     * Returns the number of unresolved individuals
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the index of the individual in a given position
+     */
+    public int get(int position)
+    {
+        return indices[position];
+    }
+
+    /**
+     * Removes an individual, moving the last unresolved individual to its position
+     */
+    public void remove(int individual)
+    {
+        int position = positions[individual];
+
+        if (position < 0)
+            return;
+
+        int last = indices[size - 1];
+        indices[position] = last;
+        positions[last] = position;
+        positions[individual] = -1;
+        size--;
+    }
+
+    /**
+     * Shuffles the unresolved individuals (Fisher-Yates)
+     */
+    public void shuffle(RandomStream random)
+    {
+        for (int i = size - 1; i > 0; i--)
+        {
+            int indexToSwap = random.nextInt(0, i);
+            int temp = indices[indexToSwap];
+            indices[indexToSwap] = indices[i];
+            indices[i] = temp;
+            positions[indices[i]] = i;
+            positions[indices[indexToSwap]] = indexToSwap;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package br.unirio.covid19.pooling.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * Flight recorder event for the decoding of the trial results of a group. Groups are
+ * decoded millions of times in a sweep, so the event must be enabled explicitly.
+ */
+@Name("br.unirio.covid19.pooling.Decode")
+@Label("Group Decoding")
+@Category({"Pooling", "Simulation"})
+@Description("Resolves the individuals of a group from the results of its trials")
+@Enabled(false)
+public class DecodeEvent extends Event
+{
+    @Label("Individuals")
+    private @Setter int individuals;
+
+    @Label("Trials")
+    private @Setter int trials;
+
+    @Label("Positive Trials")
+    private @Setter int positiveTrials;
+
+    @Label("Individuals Resolved")
+    private @Setter int individualsResolved;
+}
\ No newline at end of file
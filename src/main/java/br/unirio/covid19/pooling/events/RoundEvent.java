@@ -0,0 +1,30 @@
+package br.unirio.covid19.pooling.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * Flight recorder event for a simulation round
+ */
+@Name("br.unirio.covid19.pooling.Round")
+@Label("Simulation Round")
+@Category({"Pooling", "Simulation"})
+@Description("Runs all testing models of a strategy on a population")
+public class RoundEvent extends Event
+{
+    @Label("Strategy")
+    private @Setter String strategy;
+
+    @Label("Individuals")
+    private @Setter int individuals;
+
+    @Label("Trials")
+    private @Setter int trials;
+
+    @Label("Errors")
+    private @Setter int errors;
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package br.unirio.covid19.pooling.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * Flight recorder event for a testing stage, in which a pooling model tests the
+ * individuals left unresolved by the previous stages of a round
+ */
+@Name("br.unirio.covid19.pooling.Stage")
+@Label("Testing Stage")
+@Category({"Pooling", "Simulation"})
+@Description("Runs a pooling model on the unresolved individuals of a round")
+public class StageEvent extends Event
+{
+    @Label("Model Class")
+    private @Setter Class<?> modelClass;
+
+    @Label("Model")
+    private @Setter String model;
+
+    @Label("Individuals")
+    private @Setter int individuals;
+
+    @Label("Groups")
+    private int groups;
+
+    @Label("Trials")
+    private int trials;
+
+    @Label("Individuals Resolved")
+    private int individualsResolved;
+
+    /**
+     * Adds the groups, trials and resolved individuals of part of the stage
+     */
+    public void add(int groupCount, int trialCount, int resolvedCount)
+    {
+        this.groups += groupCount;
+        this.trials += trialCount;
+        this.individualsResolved += resolvedCount;
+    }
+}
\ No newline at end of file
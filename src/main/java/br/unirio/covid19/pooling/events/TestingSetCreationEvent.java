@@ -0,0 +1,27 @@
+package br.unirio.covid19.pooling.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.Setter;
+
+/**
+ * Flight recorder event for the creation of the testing set of a pooling model
+ */
+@Name("br.unirio.covid19.pooling.TestingSetCreation")
+@Label("Testing Set Creation")
+@Category({"Pooling", "Design"})
+@Description("Creates the testing set of a pooling model for a group size")
+public class TestingSetCreationEvent extends Event
+{
+    @Label("Model")
+    private @Setter String model;
+
+    @Label("Individuals")
+    private @Setter int individuals;
+
+    @Label("Trials")
+    private @Setter int trials;
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+package br.unirio.covid19.pooling.experiment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Class that represents an experiment: a set of strategies simulated on populations
+ * with given prevalences or with positive probabilities read from a file
+ */
+public class Experiment
+{
+    /**
+     * Name of the experiment
+     */
+    private @Getter String name;
+
+    /**
+     * Number of individuals in the population, or zero to use the number of lines in the
+     * probability file
+     */
+    private @Getter @Setter int population;
+
+    /**
+     * Prevalences simulated in the experiment, each one a cell of the experiment
+     */
+    private @Getter List<Double> prevalences;
+
+    /**
+     * File with the positive probability of each individual, used instead of prevalences
+     */
+    private @Getter @Setter String probabilityFile;
+
+    /**
+     * Strategy specifications indexed by the identifier written to the results
+     */
+    private @Getter Map<String, String> strategies;
+
+    /**
+     * Probability of a false negative result in a trial
+     */
+    private @Getter @Setter double falseNegativeProbability;
+
+    /**
+     * Probability of a false positive result in a trial
+     */
+    private @Getter @Setter double falsePositiveProbability;
+
+    /**
+     * Number of simulation rounds in each scenario
+     */
+    private @Getter @Setter int rounds;
+
+    /**
+     * Number of scenarios (simulators) for each prevalence
+     */
+    private @Getter @Setter int scenarios;
+
+    /**
+     * Seed of the random number generator
+     */
+    private @Getter @Setter long seed;
+
+    /**
+     * Indicates whether random streams are keyed by seed, scenario and round
+     */
+    private @Getter @Setter boolean keyedRandom;
+
+    /**
+     * Number of threads used by each simulator
+     */
+    private @Getter @Setter int threads;
+
+    /**
+     * File where results are saved
+     */
+    private @Getter @Setter String output;
+
+    /**
+     * Indicates whether results are saved in the binary columnar format instead of text
+     */
+    private @Getter @Setter boolean binaryOutput;
+
+    /**
+     * Directory where the results of each scenario and strategy are cached, if any
+     */
+    private @Getter @Setter String cache;
+
+    /**
+     * File where the statistics of each strategy and cell are saved
+     */
+    private @Getter @Setter String summary;
+
+    /**
+     * Initializes an experiment with default parameters
+     */
+    public Experiment(String name)
+    {
+        this.name = name;
+        this.population = 0;
+        this.prevalences = new ArrayList<Double>();
+        this.probabilityFile = null;
+        this.strategies = new LinkedHashMap<String, String>();
+        this.falseNegativeProbability = 0.0;
+        this.falsePositiveProbability = 0.0;
+        this.rounds = 100;
+        this.scenarios = 1;
+        this.seed = 347634739;
+        this.keyedRandom = false;
+        this.threads = 1;
+        this.output = null;
+        this.binaryOutput = false;
+        this.summary = null;
+        this.cache = null;
+    }
+
+    /**
+     * Adds a prevalence to the experiment
+     */
+    public void addPrevalence(double prevalence)
+    {
+        prevalences.add(prevalence);
+    }
+
+    /**
+     * Adds a strategy to the experiment
+     */
+    public void addStrategy(String id, String specification)
+    {
+        strategies.put(id, specification);
+    }
+
+    /**
+     * Returns the number of cells in the experiment
+     */
+    public int countCells()
+    {
+        return (probabilityFile != null) ? 1 : prevalences.size();
+    }
+}
\ No newline at end of file
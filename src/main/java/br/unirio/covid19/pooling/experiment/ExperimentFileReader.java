@@ -0,0 +1,223 @@
+package br.unirio.covid19.pooling.experiment;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class that reads a file describing a queue of experiments. Each experiment starts
+ * with a line "[experiment name]" followed by "key = value" lines; strategies are
+ * declared as "strategy ID = specification". Lines starting with "#" are comments.
+ *
+ * <pre>
+ * [experiment baseline]
+ * population = 1000
+ * prevalence = 0.001, 0.01, 0.05
+ * strategy TR4 = TournamentModel(4,false)
+ * strategy OP = OptimalPartitionModel(10)
+ * false-negative = 0.05
+ * rounds = 100
+ * scenarios = 100
+ * output = results/baseline.csv
+ * </pre>
+ */
+public class ExperimentFileReader
+{
+    /**
+     * Reads the experiments in a file
+     */
+    public List<Experiment> read(String filename) throws IOException
+    {
+        List<Experiment> experiments = new ArrayList<Experiment>();
+        Experiment current = null;
+        int lineNumber = 0;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename)))
+        {
+            String line;
+
+            while ((line = reader.readLine()) != null)
+            {
+                lineNumber++;
+                line = line.trim();
+
+                if (line.length() == 0 || line.startsWith("#"))
+                    continue;
+
+                if (line.startsWith("[") && line.endsWith("]"))
+                {
+                    current = new Experiment(parseExperimentName(line, filename, lineNumber));
+                    experiments.add(current);
+                    continue;
+                }
+
+                if (current == null)
+                    throw new IOException(filename + ":" + lineNumber + ": parameter outside an experiment");
+
+                int equals = line.indexOf('=');
+
+                if (equals < 0)
+                    throw new IOException(filename + ":" + lineNumber + ": expected 'key = value'");
+
+                String key = line.substring(0, equals).trim();
+                String value = line.substring(equals + 1).trim();
+
+                try
+                {
+                    setParameter(current, key, value);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    throw new IOException(filename + ":" + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+
+        for (Experiment experiment : experiments)
+            checkExperiment(experiment, filename);
+
+        return experiments;
+    }
+
+    /**
+     * Extracts the name of an experiment from its header line
+     */
+    private String parseExperimentName(String line, String filename, int lineNumber) throws IOException
+    {
+        String header = line.substring(1, line.length() - 1).trim();
+
+        if (!header.startsWith("experiment"))
+            throw new IOException(filename + ":" + lineNumber + ": expected '[experiment name]'");
+
+        String name = header.substring("experiment".length()).trim();
+        return (name.length() > 0) ? name : "experiment-" + lineNumber;
+    }
+
+    /**
+     * Sets a parameter of an experiment
+     */
+    private void setParameter(Experiment experiment, String key, String value)
+    {
+        if (key.startsWith("strategy "))
+        {
+            experiment.addStrategy(key.substring("strategy ".length()).trim(), value);
+            return;
+        }
+
+        switch (key)
+        {
+            case "population":
+                experiment.setPopulation(Integer.parseInt(value));
+                break;
+
+            case "prevalence":
+                for (String prevalence : value.split(","))
+                    experiment.addPrevalence(Double.parseDouble(prevalence.trim()));
+                break;
+
+            case "probabilities":
+                experiment.setProbabilityFile(value);
+                break;
+
+            case "false-negative":
+                experiment.setFalseNegativeProbability(Double.parseDouble(value));
+                break;
+
+            case "false-positive":
+                experiment.setFalsePositiveProbability(Double.parseDouble(value));
+                break;
+
+            case "rounds":
+                experiment.setRounds(Integer.parseInt(value));
+                break;
+
+            case "scenarios":
+                experiment.setScenarios(Integer.parseInt(value));
+                break;
+
+            case "seed":
+                experiment.setSeed(Long.parseLong(value));
+                break;
+
+            case "random":
+                experiment.setKeyedRandom(parseRandomMode(value));
+                break;
+
+            case "threads":
+                experiment.setThreads(Integer.parseInt(value));
+                break;
+
+            case "output":
+                experiment.setOutput(value);
+                break;
+
+            case "format":
+                experiment.setBinaryOutput(parseFormat(value));
+                break;
+
+            case "cache":
+                experiment.setCache(value);
+                break;
+
+            case "summary":
+                experiment.setSummary(value);
+                break;
+
+            default:
+                throw new IllegalArgumentException("unknown parameter '" + key + "'");
+        }
+    }
+
+    /**
+     * Parses the mode of the random number generator, which is sequential or keyed
+     */
+    private boolean parseRandomMode(String value)
+    {
+        if (value.equalsIgnoreCase("keyed"))
+            return true;
+
+        if (value.equalsIgnoreCase("sequential"))
+            return false;
+
+        throw new IllegalArgumentException("unknown random mode '" + value + "'");
+    }
+
+    /**
+     * Parses the format of the output file, which is text or binary
+     */
+    private boolean parseFormat(String value)
+    {
+        if (value.equalsIgnoreCase("binary"))
+            return true;
+
+        if (value.equalsIgnoreCase("text"))
+            return false;
+
+        throw new IllegalArgumentException("unknown output format '" + value + "'");
+    }
+
+    /**
+     * Checks whether an experiment has all required parameters
+     */
+    private void checkExperiment(Experiment experiment, String filename) throws IOException
+    {
+        String prefix = filename + ": experiment " + experiment.getName() + ": ";
+
+        if (experiment.getStrategies().isEmpty())
+            throw new IOException(prefix + "no strategies");
+
+        if (experiment.getOutput() == null && experiment.getSummary() == null)
+            throw new IOException(prefix + "no output or summary file");
+
+        if (experiment.getProbabilityFile() == null && experiment.getPrevalences().isEmpty())
+            throw new IOException(prefix + "requires prevalences or a probability file");
+
+        if (experiment.getProbabilityFile() != null && !experiment.getPrevalences().isEmpty())
+            throw new IOException(prefix + "cannot have both prevalences and a probability file");
+
+        if (experiment.getProbabilityFile() == null && experiment.getPopulation() <= 0)
+            throw new IOException(prefix + "requires a population");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,341 @@
+package br.unirio.covid19.pooling.experiment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import br.unirio.covid19.pooling.engine.ColumnarResultWriter;
+import br.unirio.covid19.pooling.engine.ProbabilityFileLoader;
+import br.unirio.covid19.pooling.engine.ResultCache;
+import br.unirio.covid19.pooling.engine.ResultSummary;
+import br.unirio.covid19.pooling.engine.ResultWriter;
+import br.unirio.covid19.pooling.engine.SimulationResult;
+import br.unirio.covid19.pooling.engine.Simulator;
+import br.unirio.covid19.pooling.engine.TextResultWriter;
+import br.unirio.covid19.pooling.model.simulation.Strategy;
+import br.unirio.covid19.pooling.utils.ProgressReporter;
+import br.unirio.covid19.pooling.utils.PseudoRandom;
+
+/**
+ * Class that runs a queue of experiments in a single process, so that compiled code
+ * and the testing sets of the pooling models are reused from one experiment to the
+ * next. Each experiment restarts the random number generator with its own seed, or
+ * keys the random streams of each scenario by its seed, and experiments sharing an
+ * output file append to it. Experiments may also save the statistics of the rounds of
+ * each strategy and cell to a summary file, instead of or besides the rows of each round.
+ *
+ * Experiments with keyed random streams may cache the results of each scenario and
+ * strategy in a directory, so that unchanged configurations are not simulated again.
+ *
+ * A runner may run a single shard of the cells of its experiments, numbered in order
+ * across all experiments run by it. Shards write their rows prefixed by the cell index
+ * to their own output files, and the partial sums of their summaries, which are merged
+ * by the {@link ShardMerger}.
+ */
+public class ExperimentRunner
+{
+    /**
+     * Columns that identify the experiment, strategy and cell of a round
+     */
+    public static final String ROUND_ID_HEADER = "experiment\tid\tsource";
+
+    private StrategyParser parser;
+    private Map<String, ResultWriter> writers;
+    private Map<String, ResultSummary> summaries;
+    private int shard;
+    private int shards;
+    private int cellCount;
+
+    /**
+     * Thread pool shared by the simulators of all experiments, and its number of threads
+     */
+    private ExecutorService executor;
+    private int executorThreads;
+
+    /**
+     * Initializes the runner
+     */
+    public ExperimentRunner()
+    {
+        this.parser = new StrategyParser();
+        this.writers = new HashMap<String, ResultWriter>();
+        this.summaries = new LinkedHashMap<String, ResultSummary>();
+        this.shard = 0;
+        this.shards = 1;
+        this.cellCount = 0;
+        this.executor = null;
+        this.executorThreads = 0;
+    }
+
+    /**
+     * Runs only the cells of a shard, those whose index leaves the shard number as the
+     * remainder of a division by the number of shards
+     */
+    public ExperimentRunner setShard(int shard, int shards)
+    {
+        if (shards < 1 || shard < 0 || shard >= shards)
+            throw new IllegalArgumentException("Invalid shard " + shard + " of " + shards);
+
+        this.shard = shard;
+        this.shards = shards;
+        return this;
+    }
+
+    /**
+     * Runs all experiments in a file
+     */
+    public void run(String filename) throws IOException
+    {
+        run(new ExperimentFileReader().read(filename));
+    }
+
+    /**
+     * Runs a list of experiments
+     */
+    public void run(List<Experiment> experiments) throws IOException
+    {
+        try
+        {
+            for (Experiment experiment : experiments)
+                run(experiment);
+
+            saveSummaries();
+        }
+        finally
+        {
+            for (ResultWriter writer : writers.values())
+                writer.close();
+
+            writers.clear();
+            summaries.clear();
+            shutdownExecutor();
+        }
+    }
+
+    /**
+     * Runs an experiment
+     */
+    private void run(Experiment experiment) throws IOException
+    {
+        Map<String, Strategy> strategies = new HashMap<String, Strategy>();
+
+        for (Map.Entry<String, String> entry : experiment.getStrategies().entrySet())
+            strategies.put(entry.getKey(), parser.parseStrategy(entry.getValue()));
+
+        if (shards > 1 && !experiment.isKeyedRandom())
+            throw new IOException("experiment " + experiment.getName() + ": sharded runs require random = keyed");
+
+        if (shards > 1 && experiment.isBinaryOutput() && experiment.getOutput() != null)
+            throw new IOException("experiment " + experiment.getName() + ": sharded runs require text output");
+
+        if (experiment.getCache() != null && !experiment.isKeyedRandom())
+            throw new IOException("experiment " + experiment.getName() + ": cached runs require random = keyed");
+
+        ResultCache cache = (experiment.getCache() != null) ? new ResultCache(experiment.getCache()) : null;
+        String probabilityHash = (cache != null && experiment.getProbabilityFile() != null) ? ResultCache.hashFile(experiment.getProbabilityFile()) : null;
+
+        ResultWriter writer = (experiment.getOutput() != null) ? getWriter(experiment.getOutput(), experiment.isBinaryOutput()) : null;
+        ResultSummary summary = (experiment.getSummary() != null) ? summaries.computeIfAbsent(experiment.getSummary(), name -> new ResultSummary()) : null;
+        int population = calculatePopulation(experiment);
+        double[] probabilities = (experiment.getProbabilityFile() != null) ? loadProbabilities(experiment, population) : null;
+        int cells = experiment.countCells();
+        int firstCell = cellCount;
+        cellCount += cells;
+
+        int shardCells = countShardCells(firstCell, cells);
+        long totalRounds = (long) shardCells * experiment.getScenarios() * strategies.size() * experiment.getRounds();
+        ProgressReporter progress = new ProgressReporter(experiment.getName(), shardCells, totalRounds);
+
+        PseudoRandom.init(experiment.getSeed());
+
+        for (int cell = 0; cell < cells; cell++)
+        {
+            if ((firstCell + cell) % shards != shard)
+                continue;
+
+            String prefix = (shards > 1) ? (firstCell + cell) + "\t" : "";
+            String source = (experiment.getProbabilityFile() != null) ? experiment.getProbabilityFile() : Double.toString(experiment.getPrevalences().get(cell));
+
+            for (int scenario = 0; scenario < experiment.getScenarios(); scenario++)
+            {
+                Simulator simulator = null;
+
+                for (Map.Entry<String, String> entry : experiment.getStrategies().entrySet())
+                {
+                    String roundId = prefix + experiment.getName() + "\t" + entry.getKey() + "\t" + source;
+                    Strategy strategy = strategies.get(entry.getKey());
+                    String configuration = null;
+                    SimulationResult results = null;
+
+                    if (cache != null)
+                    {
+                        String populationSource = (probabilityHash != null) ? "file " + probabilityHash : "prevalence " + source;
+                        configuration = ResultCache.describe(population, populationSource, strategy, experiment.getFalseNegativeProbability(), experiment.getFalsePositiveProbability(), experiment.getRounds(), experiment.getSeed(), cell * experiment.getScenarios() + scenario);
+                        results = cache.get(configuration);
+                    }
+
+                    if (results == null)
+                    {
+                        if (simulator == null)
+                            simulator = createSimulator(experiment, population, probabilities, cell, scenario);
+
+                        results = simulator.run(experiment.getRounds(), strategy);
+
+                        if (cache != null)
+                            cache.put(configuration, results);
+                    }
+
+                    if (writer != null)
+                        results.save(writer, roundId);
+
+                    if (summary != null)
+                        summary.add(roundId, population, results);
+
+                    progress.addRounds(experiment.getRounds(), population);
+                }
+            }
+
+            progress.completeCell();
+        }
+
+        if (writer != null)
+            writer.flush();
+
+        progress.finish();
+
+        if (cache != null)
+            System.out.println(experiment.getName() + ": " + cache.getHits() + " results read from the cache, " + cache.getMisses() + " simulated");
+    }
+
+    /**
+     * Saves the summaries of all experiments; shards save the partial sums of their cells
+     */
+    private void saveSummaries() throws IOException
+    {
+        for (Map.Entry<String, ResultSummary> entry : summaries.entrySet())
+        {
+            if (shards > 1)
+                entry.getValue().saveSums(ShardMerger.getShardOutput(entry.getKey(), shard, shards), "cell\t" + ROUND_ID_HEADER);
+            else
+                entry.getValue().save(entry.getKey(), ROUND_ID_HEADER);
+        }
+    }
+
+    /**
+     * Counts the cells of an experiment that belong to the shard
+     */
+    private int countShardCells(int firstCell, int cells)
+    {
+        int count = 0;
+
+        for (int cell = firstCell; cell < firstCell + cells; cell++)
+            if (cell % shards == shard)
+                count++;
+
+        return count;
+    }
+
+    /**
+     * Creates a simulator for a cell of an experiment
+     */
+    private Simulator createSimulator(Experiment experiment, int population, double[] probabilities, int cell, int scenario)
+    {
+        Simulator simulator = new Simulator(population, experiment.getFalseNegativeProbability(), experiment.getFalsePositiveProbability());
+        simulator.setThreads(experiment.getThreads(), getExecutor(experiment.getThreads()));
+
+        if (experiment.isKeyedRandom())
+            simulator.setRandomKey(experiment.getSeed(), cell * experiment.getScenarios() + scenario);
+
+        if (probabilities != null)
+            return simulator.loadPositiveProbability(probabilities);
+
+        return simulator.setPositiveProbability(experiment.getPrevalences().get(cell));
+    }
+
+    /**
+     * Returns the thread pool shared by the simulators, replacing it if an experiment
+     * requires a different number of threads
+     */
+    private ExecutorService getExecutor(int threads)
+    {
+        if (threads <= 1)
+            return null;
+
+        if (executor == null || executorThreads != threads)
+        {
+            shutdownExecutor();
+            executor = new ForkJoinPool(threads);
+            executorThreads = threads;
+        }
+
+        return executor;
+    }
+
+    /**
+     * Shuts down the thread pool shared by the simulators
+     */
+    private void shutdownExecutor()
+    {
+        if (executor != null)
+            executor.shutdown();
+
+        executor = null;
+        executorThreads = 0;
+    }
+
+    /**
+     * Loads the positive probabilities of an experiment from its file, once for all of
+     * its cells and scenarios
+     */
+    private double[] loadProbabilities(Experiment experiment, int population) throws IOException
+    {
+        double[] probabilities = new double[population];
+        new ProbabilityFileLoader(experiment.getThreads()).load(experiment.getProbabilityFile(), population, (index, probability) -> probabilities[index] = probability);
+        return probabilities;
+    }
+
+    /**
+     * Calculates the number of individuals in an experiment, counting the lines of the
+     * probability file if the population was not informed
+     */
+    private int calculatePopulation(Experiment experiment) throws IOException
+    {
+        if (experiment.getPopulation() > 0)
+            return experiment.getPopulation();
+
+        try (Stream<String> lines = Files.lines(Paths.get(experiment.getProbabilityFile())))
+        {
+            return (int) lines.count();
+        }
+    }
+
+    /**
+     * Returns the writer of an output file, creating it with a header on first use. Shards
+     * write to their own file, with the cell index as the first column.
+     */
+    private ResultWriter getWriter(String output, boolean binary) throws IOException
+    {
+        ResultWriter writer = writers.get(output);
+
+        if (writer == null)
+        {
+            if (shards > 1)
+                writer = new TextResultWriter(ShardMerger.getShardOutput(output, shard, shards), "cell\t" + ROUND_ID_HEADER + "\terrors\ttrials");
+            else if (binary)
+                writer = new ColumnarResultWriter(output, ROUND_ID_HEADER + "\terrors\ttrials");
+            else
+                writer = new TextResultWriter(output, ROUND_ID_HEADER + "\terrors\ttrials");
+
+            writers.put(output, writer);
+        }
+
+        return writer;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,245 @@
+package br.unirio.covid19.pooling.experiment;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import br.unirio.covid19.pooling.engine.ResultSummary;
+import br.unirio.covid19.pooling.engine.SummaryStatistics;
+import lombok.Getter;
+
+/**
+ * Class that merges the outputs of the shards of a sweep into the output of a single
+ * process. Each shard writes its rows prefixed by the index of their cell, in increasing
+ * order of cells; rows are merged by cell index, which restores the order of a single
+ * process, and the cell index is removed. Summaries are merged from the partial sums of
+ * each shard, adding the groups in order of cells.
+ */
+public class ShardMerger
+{
+    /**
+     * Returns the name of the output file of a shard
+     */
+    public static String getShardOutput(String output, int shard, int shards)
+    {
+        return output + ".shard-" + shard + "-of-" + shards;
+    }
+
+    /**
+     * Merges the shard outputs of all experiments in a file
+     */
+    public void mergeExperiments(String filename, int shards) throws IOException
+    {
+        Set<String> outputs = new LinkedHashSet<String>();
+        Set<String> summaries = new LinkedHashSet<String>();
+
+        for (Experiment experiment : new ExperimentFileReader().read(filename))
+        {
+            if (experiment.getOutput() != null)
+                outputs.add(experiment.getOutput());
+
+            if (experiment.getSummary() != null)
+                summaries.add(experiment.getSummary());
+        }
+
+        for (String output : outputs)
+            merge(output, shards);
+
+        for (String summary : summaries)
+            mergeSummary(summary, shards);
+    }
+
+    /**
+     * Merges the partial sums of all shards into a summary file
+     */
+    public void mergeSummary(String summary, int shards) throws IOException
+    {
+        List<SummaryRow> rows = new ArrayList<SummaryRow>();
+        String header = null;
+
+        for (int shard = 0; shard < shards; shard++)
+        {
+            String shardSummary = getShardOutput(summary, shard, shards);
+
+            try (BufferedReader reader = new BufferedReader(new FileReader(shardSummary)))
+            {
+                String shardHeader = reader.readLine();
+
+                if (shardHeader == null || !shardHeader.startsWith("cell\t") || !shardHeader.endsWith("\t" + ResultSummary.SUMS_HEADER))
+                    throw new IOException(shardSummary + ": not a shard summary");
+
+                if (header != null && !header.equals(shardHeader))
+                    throw new IOException(shardSummary + ": header differs from the other shards");
+
+                header = shardHeader;
+                String line;
+
+                while ((line = reader.readLine()) != null)
+                    rows.add(parseSummaryRow(line, shardSummary));
+            }
+        }
+
+        rows.sort(Comparator.comparingInt(SummaryRow::getCell));
+        ResultSummary result = new ResultSummary();
+
+        for (SummaryRow row : rows)
+            result.getGroup(row.getGroupId()).merge(row.getStatistics());
+
+        String groupHeader = header.substring("cell\t".length(), header.length() - ResultSummary.SUMS_HEADER.length() - 1);
+        result.save(summary, groupHeader);
+    }
+
+    /**
+     * Parses a row of partial sums: the cell index, the group columns and five sums
+     */
+    private SummaryRow parseSummaryRow(String line, String shardSummary) throws IOException
+    {
+        String[] columns = line.split("\t", -1);
+
+        if (columns.length < 7)
+            throw new IOException(shardSummary + ": malformed row: " + line);
+
+        try
+        {
+            int sums = columns.length - 5;
+            String groupId = String.join("\t", Arrays.copyOfRange(columns, 1, sums));
+            SummaryStatistics statistics = new SummaryStatistics(Long.parseLong(columns[sums]), Long.parseLong(columns[sums + 1]), Long.parseLong(columns[sums + 2]), Long.parseLong(columns[sums + 3]), Long.parseLong(columns[sums + 4]));
+            return new SummaryRow(Integer.parseInt(columns[0]), groupId, statistics);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IOException(shardSummary + ": malformed row: " + line);
+        }
+    }
+
+    /**
+     * Merges the outputs of all shards into an output file
+     */
+    public void merge(String output, int shards) throws IOException
+    {
+        BufferedReader[] readers = new BufferedReader[shards];
+        String[] lines = new String[shards];
+        int[] cells = new int[shards];
+
+        try (FileWriter writer = new FileWriter(output))
+        {
+            String header = null;
+
+            for (int shard = 0; shard < shards; shard++)
+            {
+                String shardOutput = getShardOutput(output, shard, shards);
+                readers[shard] = new BufferedReader(new FileReader(shardOutput));
+                String shardHeader = readers[shard].readLine();
+
+                if (shardHeader == null || !shardHeader.startsWith("cell\t"))
+                    throw new IOException(shardOutput + ": not a shard output");
+
+                if (header != null && !header.equals(shardHeader))
+                    throw new IOException(shardOutput + ": header differs from the other shards");
+
+                header = shardHeader;
+                readRow(readers[shard], shardOutput, lines, cells, shard);
+            }
+
+            writer.write(removeCell(header) + "\n");
+            int shard;
+
+            while ((shard = findFirstCell(lines, cells)) >= 0)
+            {
+                int cell = cells[shard];
+
+                while (lines[shard] != null && cells[shard] == cell)
+                {
+                    writer.write(removeCell(lines[shard]) + "\n");
+                    readRow(readers[shard], getShardOutput(output, shard, shards), lines, cells, shard);
+                }
+            }
+        }
+        finally
+        {
+            for (BufferedReader reader : readers)
+                if (reader != null)
+                    reader.close();
+        }
+    }
+
+    /**
+     * Reads the next row of a shard and its cell index, checking that cells increase
+     */
+    private void readRow(BufferedReader reader, String shardOutput, String[] lines, int[] cells, int shard) throws IOException
+    {
+        String line = reader.readLine();
+
+        if (line == null)
+        {
+            lines[shard] = null;
+            return;
+        }
+
+        int tab = line.indexOf('\t');
+        int cell;
+
+        try
+        {
+            cell = Integer.parseInt(line.substring(0, Math.max(tab, 0)));
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IOException(shardOutput + ": row without a cell index: " + line);
+        }
+
+        if (lines[shard] != null && cell < cells[shard])
+            throw new IOException(shardOutput + ": cells out of order at cell " + cell);
+
+        lines[shard] = line;
+        cells[shard] = cell;
+    }
+
+    /**
+     * Returns the shard whose next row has the lowest cell index, or -1 if all shards ended
+     */
+    private int findFirstCell(String[] lines, int[] cells)
+    {
+        int first = -1;
+
+        for (int shard = 0; shard < lines.length; shard++)
+            if (lines[shard] != null && (first < 0 || cells[shard] < cells[first]))
+                first = shard;
+
+        return first;
+    }
+
+    /**
+     * Removes the cell index from the start of a row
+     */
+    private String removeCell(String line)
+    {
+        return line.substring(line.indexOf('\t') + 1);
+    }
+}
+
+/**
+ * Class that represents a row of partial sums read from a shard summary
+ */
+class SummaryRow
+{
+    private @Getter int cell;
+
+    private @Getter String groupId;
+
+    private @Getter SummaryStatistics statistics;
+
+    public SummaryRow(int cell, String groupId, SummaryStatistics statistics)
+    {
+        this.cell = cell;
+        this.groupId = groupId;
+        this.statistics = statistics;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,300 @@
+package br.unirio.covid19.pooling.experiment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import br.unirio.covid19.pooling.model.pooling.BinarySplittingModel;
+import br.unirio.covid19.pooling.model.pooling.BorderGridModel;
+import br.unirio.covid19.pooling.model.pooling.FullGridModel;
+import br.unirio.covid19.pooling.model.pooling.HierarchicalModel;
+import br.unirio.covid19.pooling.model.pooling.OneByOneModel;
+import br.unirio.covid19.pooling.model.pooling.OptimalPartitionModel;
+import br.unirio.covid19.pooling.model.pooling.PoolingModel;
+import br.unirio.covid19.pooling.model.pooling.RandomSparseModel;
+import br.unirio.covid19.pooling.model.pooling.RectangularGridModel;
+import br.unirio.covid19.pooling.model.pooling.ShiftedTraversalModel;
+import br.unirio.covid19.pooling.model.pooling.TournamentAdaptativeModel;
+import br.unirio.covid19.pooling.model.pooling.TournamentAdaptativeModel2;
+import br.unirio.covid19.pooling.model.pooling.TournamentModel;
+import br.unirio.covid19.pooling.model.simulation.Strategy;
+
+/**
+ * Class that creates strategies from specifications such as
+ * "TournamentModel(4,true)+OneByOneModel", using the same notation of the description
+ * of the pooling models. Model names are case insensitive and the "Model" suffix is
+ * optional. Models are shared by equal specifications, so that their testing sets are
+ * created only once. Parsers serving untrusted specifications may keep only a limited
+ * number of the models used most recently.
+ */
+public class StrategyParser
+{
+    private Map<String, PoolingModel> models;
+
+    /**
+     * Initializes the parser, keeping every model it creates
+     */
+    public StrategyParser()
+    {
+        this.models = new ConcurrentHashMap<String, PoolingModel>();
+    }
+
+    /**
+     * Initializes the parser, keeping only a number of the models used most recently
+     */
+    public StrategyParser(int maximumModels)
+    {
+        if (maximumModels < 1)
+            throw new IllegalArgumentException("The parser must keep at least one model");
+
+        this.models = Collections.synchronizedMap(new RecentModelMap(maximumModels));
+    }
+
+    /**
+     * Creates a strategy with the models in a specification separated by "+"
+     */
+    public Strategy parseStrategy(String specification)
+    {
+        Strategy strategy = new Strategy();
+
+        for (String modelSpecification : specification.split("\\+"))
+            strategy.add(parseModel(modelSpecification));
+
+        return strategy;
+    }
+
+    /**
+     * Creates a pooling model from its specification, reusing an equal model if one
+     * has already been created
+     */
+    public PoolingModel parseModel(String specification)
+    {
+        String text = specification.replaceAll("\\s", "");
+        int open = text.indexOf('(');
+        String name = (open >= 0) ? text.substring(0, open) : text;
+        String[] args = new String[0];
+
+        if (open >= 0)
+        {
+            if (!text.endsWith(")"))
+                throw new IllegalArgumentException("Missing closing parenthesis in model " + specification);
+
+            String argList = text.substring(open + 1, text.length() - 1);
+
+            if (argList.length() > 0)
+                args = argList.split(",");
+        }
+
+        PoolingModel model = createModel(name, args, specification);
+        PoolingModel existing = models.putIfAbsent(model.toString(), model);
+        return (existing != null) ? existing : model;
+    }
+
+    /**
+     * Creates a pooling model from its name and arguments
+     */
+    private PoolingModel createModel(String name, String[] args, String specification)
+    {
+        String key = name.toLowerCase();
+
+        if (key.endsWith("model"))
+            key = key.substring(0, key.length() - 5);
+
+        switch (key)
+        {
+            case "tournament":
+                checkArguments(args, 1, 2, specification);
+                return new TournamentModel(parseSize(args[0], 1, specification), args.length < 2 || parseBoolean(args[1], specification));
+
+            case "tournamentadaptative":
+                if (args.length == 0)
+                    return new TournamentAdaptativeModel();
+
+                checkArguments(args, 3, 3, specification);
+                return new TournamentAdaptativeModel(parseDouble(args[0], specification), parseDouble(args[1], specification), parseDouble(args[2], specification));
+
+            case "tournamentadaptative2":
+                checkArguments(args, 1, 1, specification);
+                return new TournamentAdaptativeModel2(parseSize(args[0], 1, specification));
+
+            case "onebyone":
+                checkArguments(args, 0, 0, specification);
+                return new OneByOneModel();
+
+            case "optimalpartition":
+                if (args.length == 0)
+                    return new OptimalPartitionModel();
+
+                checkArguments(args, 1, 1, specification);
+                return new OptimalPartitionModel(parseSize(args[0], 1, specification));
+
+            case "binarysplitting":
+                checkArguments(args, 1, 1, specification);
+                return new BinarySplittingModel(parseSize(args[0], 1, specification));
+
+            case "hierarchical":
+                checkArguments(args, 1, Integer.MAX_VALUE, specification);
+                return new HierarchicalModel(parseSizes(args, specification));
+
+            case "randomsparse":
+                checkArguments(args, 4, 4, specification);
+                return new RandomSparseModel(parseSize(args[0], 1, specification), parseSize(args[1], 1, specification), parseSize(args[2], 1, specification), parseLong(args[3], specification));
+
+            case "rectangulargrid":
+                checkArguments(args, 2, 2, specification);
+                return new RectangularGridModel(parseSize(args[0], 1, specification), parseSize(args[1], 1, specification));
+
+            case "fullgrid":
+                checkArguments(args, 1, 1, specification);
+                return new FullGridModel(parseSize(args[0], 1, specification));
+
+            case "bordergrid":
+                checkArguments(args, 1, 1, specification);
+                return new BorderGridModel(parseSize(args[0], 2, specification));
+
+            case "shiftedtraversal":
+                checkArguments(args, 3, 3, specification);
+                return new ShiftedTraversalModel(parseSize(args[0], 1, specification), parseSize(args[1], 2, specification), parseSize(args[2], 1, specification));
+
+            default:
+                throw new IllegalArgumentException("Unknown pooling model " + specification);
+        }
+    }
+
+    /**
+     * Checks the number of arguments of a model
+     */
+    private void checkArguments(String[] args, int minimum, int maximum, String specification)
+    {
+        if (args.length < minimum || args.length > maximum)
+            throw new IllegalArgumentException("Wrong number of arguments in model " + specification);
+    }
+
+    /**
+     * Parses an integer argument
+     */
+    private int parseInt(String arg, String specification)
+    {
+        try
+        {
+            return Integer.parseInt(arg);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid integer '" + arg + "' in model " + specification);
+        }
+    }
+
+    /**
+     * Parses a size argument, such as the number of individuals or trials, which must be
+     * at least a minimum value
+     */
+    private int parseSize(String arg, int minimum, String specification)
+    {
+        int value = parseInt(arg, specification);
+
+        if (value < minimum)
+            throw new IllegalArgumentException("Size '" + arg + "' must be at least " + minimum + " in model " + specification);
+
+        return value;
+    }
+
+    /**
+     * Parses all arguments as positive sizes
+     */
+    private int[] parseSizes(String[] args, String specification)
+    {
+        int[] values = new int[args.length];
+
+        for (int i = 0; i < args.length; i++)
+            values[i] = parseSize(args[i], 1, specification);
+
+        return values;
+    }
+
+    /**
+     * Parses a long integer argument
+     */
+    private long parseLong(String arg, String specification)
+    {
+        try
+        {
+            return Long.parseLong(arg);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid integer '" + arg + "' in model " + specification);
+        }
+    }
+
+    /**
+     * Parses a real argument
+     */
+    private double parseDouble(String arg, String specification)
+    {
+        try
+        {
+            return Double.parseDouble(arg);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid number '" + arg + "' in model " + specification);
+        }
+    }
+
+    /**
+     * Parses a boolean argument
+     */
+    private boolean parseBoolean(String arg, String specification)
+    {
+        if (arg.equalsIgnoreCase("true"))
+            return true;
+
+        if (arg.equalsIgnoreCase("false"))
+            return false;
+
+        throw new IllegalArgumentException("Invalid boolean '" + arg + "' in model " + specification);
+    }
+
+    /**
+     * Returns the models created by the parser
+     */
+    public List<PoolingModel> getModels()
+    {
+        synchronized (models)
+        {
+            return new ArrayList<PoolingModel>(models.values());
+        }
+    }
+}
+
+/**
+ * Map of models in the order they were last used, removing the least recently used
+ * model when it holds more than a maximum number of models
+ */
+@SuppressWarnings("serial")
+class RecentModelMap extends LinkedHashMap<String, PoolingModel>
+{
+    private int maximumModels;
+
+    /**
+     * Initializes the map
+     */
+    public RecentModelMap(int maximumModels)
+    {
+        super(16, 0.75f, true);
+        this.maximumModels = maximumModels;
+    }
+
+    /**
+     * Removes the least recently used model when the map is full
+     */
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, PoolingModel> eldest)
+    {
+        return size() > maximumModels;
+    }
+}
\ No newline at end of file
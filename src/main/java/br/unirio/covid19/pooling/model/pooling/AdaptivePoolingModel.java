@@ -0,0 +1,38 @@
+package br.unirio.covid19.pooling.model.pooling;
+
+import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
+import br.unirio.covid19.pooling.model.simulation.TestingSet;
+import br.unirio.covid19.pooling.model.simulation.TrialEvaluator;
+
+/**
+ * Abstract class for a pooling strategy that decides the next trials of a group
+ * based on the results of the previous ones, running several testing stages in
+ * a single simulation round
+ */
+public abstract class AdaptivePoolingModel extends PoolingModel
+{
+    /**
+     * This function is called to run the trials of a group of individuals, resolving
+     * the individuals as the results of the trials become available
+     */
+    public abstract void runAdaptiveTrials(IndividualGroup group, TrialEvaluator evaluator);
+
+    /**
+     * Adaptive models decide their trials as results arrive, so their testing set holds
+     * only the initial pool, with all individuals of the group
+     */
+    @Override
+    public TestingSet createTestingSet(int individuals)
+    {
+        return TestingSet.createSingleTrialForAllIndividuals(individuals);
+    }
+
+    /**
+     * Adaptive models decide their own trials after the initial pool
+     */
+    @Override
+    public boolean isSingleTrialDesign(int individuals)
+    {
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,195 @@
+package br.unirio.covid19.pooling.model.pooling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import br.unirio.covid19.pooling.model.simulation.Individual;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroupList;
+import br.unirio.covid19.pooling.model.simulation.TrialEvaluator;
+
+/**
+ * Class that represents the generalized binary splitting adaptive pooling model (Hwang),
+ * which uses the sum of the positive probabilities of a group as the expected number
+ * of positives in the group
+ */
+public class BinarySplittingModel extends AdaptivePoolingModel
+{
+    private int groupSize;
+
+    /**
+     * Initializes the testing model indicating the number of individuals in a group
+     */
+    public BinarySplittingModel(int groupSize)
+    {
+        if (groupSize < 1)
+            throw new IllegalArgumentException("The group size must be positive");
+
+        this.groupSize = groupSize;
+    }
+
+    /**
+     * Split the individuals in groups
+     */
+    @Override
+    public IndividualGroupList splitIndividualsIntoGroups(List<Individual> individuals)
+    {
+        return splitIntoGroups(individuals, groupSize);
+    }
+
+    /**
+     * Returns the size of the groups
+     */
+    @Override
+    public int getFixedGroupSize()
+    {
+        return groupSize;
+    }
+
+    /**
+     * Runs the trials of a group of individuals. Once the expected positives have been
+     * found, the remaining individuals are tested in a single pool and, if it is positive,
+     * a positive is found in that pool by binary search.
+     */
+    @Override
+    public void runAdaptiveTrials(IndividualGroup group, TrialEvaluator evaluator)
+    {
+        List<Individual> remaining = new ArrayList<Individual>();
+
+        for (Individual individual : group.getIndividuals())
+            remaining.add(individual);
+
+        int expectedPositives = estimatePositives(remaining);
+
+        while (remaining.size() > 0)
+        {
+            int individualCount = remaining.size();
+
+            if (expectedPositives == 0)
+            {
+                if (!evaluator.runTrial(remaining))
+                {
+                    resolveNegative(remaining);
+                    return;
+                }
+
+                findPositiveInPool(new ArrayList<Individual>(remaining), evaluator);
+                removeResolved(remaining);
+            }
+            else if (individualCount <= 2 * expectedPositives - 2)
+            {
+                testIndividually(remaining, evaluator);
+                return;
+            }
+            else
+            {
+                int poolSize = calculatePoolSize(individualCount, expectedPositives);
+                List<Individual> pool = new ArrayList<Individual>(remaining.subList(0, poolSize));
+
+                if (evaluator.runTrial(pool))
+                {
+                    findPositiveInPool(pool, evaluator);
+                    expectedPositives--;
+                }
+                else
+                {
+                    resolveNegative(pool);
+                }
+
+                removeResolved(remaining);
+            }
+        }
+    }
+
+    /**
+     * Estimates the number of positives in a group, which is at least one
+     */
+    private int estimatePositives(List<Individual> individuals)
+    {
+        double sum = 0.0;
+
+        for (Individual individual : individuals)
+            sum += individual.getPositiveProbability();
+
+        return Math.max(1, (int) Math.ceil(sum));
+    }
+
+    /**
+     * Calculates the size of the next pool, the largest power of two not exceeding (n-d+1)/d
+     */
+    private int calculatePoolSize(int individualCount, int expectedPositives)
+    {
+        int poolSize = 1;
+
+        while (poolSize * 2 * expectedPositives <= individualCount - expectedPositives + 1)
+            poolSize *= 2;
+
+        return poolSize;
+    }
+
+    /**
+     * Uses binary search to find a positive in a pool that has tested positive. Every
+     * tested half that returns negative is resolved as negative, while halves that were
+     * not tested are left unresolved for the following trials.
+     */
+    private void findPositiveInPool(List<Individual> pool, TrialEvaluator evaluator)
+    {
+        while (pool.size() > 1)
+        {
+            int half = pool.size() / 2;
+            List<Individual> firstHalf = pool.subList(0, half);
+            List<Individual> secondHalf = pool.subList(half, pool.size());
+
+            if (evaluator.runTrial(firstHalf))
+            {
+                pool = firstHalf;
+            }
+            else
+            {
+                resolveNegative(firstHalf);
+                pool = secondHalf;
+            }
+        }
+
+        pool.get(0).resolve(true);
+    }
+
+    /**
+     * Tests each individual separately
+     */
+    private void testIndividually(List<Individual> individuals, TrialEvaluator evaluator)
+    {
+        for (Individual individual : individuals)
+        {
+            List<Individual> pool = new ArrayList<Individual>();
+            pool.add(individual);
+            individual.resolve(evaluator.runTrial(pool));
+        }
+    }
+
+    /**
+     * Resolves all individuals in a pool as negative
+     */
+    private void resolveNegative(List<Individual> pool)
+    {
+        for (Individual individual : pool)
+            individual.resolve(false);
+    }
+
+    /**
+     * Removes the resolved individuals from a list
+     */
+    private void removeResolved(List<Individual> individuals)
+    {
+        individuals.removeIf(individual -> individual.isResolved());
+    }
+
+    /**
+     * Returns a description of the model and its parameters
+     */
+    @Override
+    public String toString()
+    {
+        return "BinarySplittingModel(" + groupSize + ")";
+    }
+}
\ No newline at end of file
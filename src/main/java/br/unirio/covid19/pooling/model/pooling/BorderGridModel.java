@@ -33,6 +33,15 @@ public class BorderGridModel extends PoolingModel
         return splitIntoGroups(individuals, sampleSize);
     }
 
+    /**
+     * Returns the size of the groups
+     */
+    @Override
+    public int getFixedGroupSize()
+    {
+        return calculateBorderGridSampleSize(gridSize);
+    }
+
     /**
      * Creates a testing set for the model
      */
@@ -77,4 +86,13 @@ public class BorderGridModel extends PoolingModel
     {
         return gridSize * 2 + (gridSize - 2) * 2;
     }
+
+    /**
+     * Returns a description of the model and its parameters
+     */
+    @Override
+    public String toString()
+    {
+        return "BorderGridModel(" + gridSize + ")";
+    }
 }
\ No newline at end of file
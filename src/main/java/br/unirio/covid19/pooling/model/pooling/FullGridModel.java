@@ -33,6 +33,15 @@ public class FullGridModel extends PoolingModel
         return splitIntoGroups(individuals, sampleSize);
     }
 
+    /**
+     * Returns the size of the groups
+     */
+    @Override
+    public int getFixedGroupSize()
+    {
+        return calculateFullGridSampleSize(gridSize);
+    }
+
     /**
      * Creates a testing set for the model
      */
@@ -79,4 +88,13 @@ public class FullGridModel extends PoolingModel
     {
         return gridSize * gridSize;
     }
+
+    /**
+     * Returns a description of the model and its parameters
+     */
+    @Override
+    public String toString()
+    {
+        return "FullGridModel(" + gridSize + ")";
+    }
 }
\ No newline at end of file
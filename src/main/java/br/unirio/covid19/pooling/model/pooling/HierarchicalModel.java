@@ -0,0 +1,122 @@
+package br.unirio.covid19.pooling.model.pooling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import br.unirio.covid19.pooling.model.simulation.Individual;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroupList;
+import br.unirio.covid19.pooling.model.simulation.TrialEvaluator;
+
+/**
+ * Class that represents a hierarchical Dorfman pooling model: pools of the first
+ * level size that test positive are split into pools of the next level size, which
+ * are tested using the remaining sample, and so on until the last level (for
+ * instance, 16, 4 and 1). Individuals in positive pools of the last level are left
+ * unresolved for the next models in the strategy.
+ */
+public class HierarchicalModel extends AdaptivePoolingModel
+{
+    private int[] levelSizes;
+
+    /**
+     * Initializes the testing model indicating the pool size on each level
+     */
+    public HierarchicalModel(int... levelSizes)
+    {
+        if (levelSizes.length == 0)
+            throw new IllegalArgumentException("A hierarchical model requires at least one level");
+
+        for (int i = 0; i < levelSizes.length; i++)
+        {
+            if (levelSizes[i] < 1 || (i > 0 && levelSizes[i] >= levelSizes[i-1]))
+                throw new IllegalArgumentException("Level sizes must be positive and decreasing");
+        }
+
+        this.levelSizes = levelSizes.clone();
+    }
+
+    /**
+     * Split the individuals in groups
+     */
+    @Override
+    public IndividualGroupList splitIndividualsIntoGroups(List<Individual> individuals)
+    {
+        return splitIntoGroups(individuals, levelSizes[0]);
+    }
+
+    /**
+     * Returns the size of the groups
+     */
+    @Override
+    public int getFixedGroupSize()
+    {
+        return levelSizes[0];
+    }
+
+    /**
+     * Runs the trials of a group of individuals
+     */
+    @Override
+    public void runAdaptiveTrials(IndividualGroup group, TrialEvaluator evaluator)
+    {
+        List<Individual> pool = new ArrayList<Individual>();
+
+        for (Individual individual : group.getIndividuals())
+            pool.add(individual);
+
+        testPool(pool, 0, evaluator);
+    }
+
+    /**
+     * Tests a pool in a given level and, if positive, the pools of the next level
+     */
+    private void testPool(List<Individual> pool, int level, TrialEvaluator evaluator)
+    {
+        boolean positive = evaluator.runTrial(pool);
+
+        if (!positive)
+        {
+            for (Individual individual : pool)
+                individual.resolve(false);
+
+            return;
+        }
+
+        if (pool.size() == 1)
+        {
+            pool.get(0).resolve(true);
+            return;
+        }
+
+        if (level + 1 >= levelSizes.length)
+            return;
+
+        int subpoolSize = levelSizes[level + 1];
+
+        for (int start = 0; start < pool.size(); start += subpoolSize)
+        {
+            int end = Math.min(start + subpoolSize, pool.size());
+            testPool(pool.subList(start, end), level + 1, evaluator);
+        }
+    }
+
+    /**
+     * Returns a description of the model and its parameters
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder description = new StringBuilder("HierarchicalModel(");
+
+        for (int i = 0; i < levelSizes.length; i++)
+        {
+            if (i > 0)
+                description.append(",");
+
+            description.append(levelSizes[i]);
+        }
+
+        return description.append(")").toString();
+    }
+}
\ No newline at end of file
@@ -22,6 +22,15 @@ public class OneByOneModel extends PoolingModel
         return splitIntoGroups(individuals, 1);
     }
 
+    /**
+     * Returns the size of the groups
+     */
+    @Override
+    public int getFixedGroupSize()
+    {
+        return 1;
+    }
+
     /**
      * Creates a testing set for the model
      */
@@ -30,4 +39,13 @@ public class OneByOneModel extends PoolingModel
     {
         return TestingSet.createSingleTrialForAllIndividuals(individuals);
     }
+
+    /**
+     * All groups are tested in a single trial
+     */
+    @Override
+    public boolean isSingleTrialDesign(int individuals)
+    {
+        return true;
+    }
 }
\ No newline at end of file
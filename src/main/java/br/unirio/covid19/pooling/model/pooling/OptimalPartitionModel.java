@@ -0,0 +1,155 @@
+package br.unirio.covid19.pooling.model.pooling;
+
+import java.util.List;
+
+import br.unirio.covid19.pooling.model.Constants;
+import br.unirio.covid19.pooling.model.simulation.Individual;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroupList;
+import br.unirio.covid19.pooling.model.simulation.TestingSet;
+
+/**
+ * Class that represents a pooling model that partitions individuals sorted by
+ * their positive probability into the contiguous pools that minimize the
+ * expected number of trials of a Dorfman testing (one trial per pool plus one
+ * trial per individual in positive pools)
+ */
+public class OptimalPartitionModel extends PoolingModel
+{
+    private int maxPoolSize;
+
+    /**
+     * Initializes the testing model using the maximum pool size
+     */
+    public OptimalPartitionModel()
+    {
+        this(Constants.MAX_POOL_SIZE);
+    }
+
+    /**
+     * Initializes the testing model indicating the maximum size of a pool
+     */
+    public OptimalPartitionModel(int maxPoolSize)
+    {
+        if (maxPoolSize < 1)
+            throw new IllegalArgumentException("The maximum pool size must be positive");
+
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    /**
+     * Split the individuals in groups
+     */
+    @Override
+    public IndividualGroupList splitIndividualsIntoGroups(List<Individual> individuals)
+    {
+        sortByPositiveProbability(individuals);
+        int[] poolSizes = calculateOptimalPoolSizes(individuals);
+
+        IndividualGroupList groups = new IndividualGroupList();
+        int start = 0;
+
+        for (int poolSize : poolSizes)
+        {
+            IndividualGroup group = new IndividualGroup();
+
+            for (int i = start; i < start + poolSize; i++)
+                group.add(individuals.get(i));
+
+            groups.add(group);
+            start += poolSize;
+        }
+
+        return groups;
+    }
+
+    /**
+     * Calculates the size of the pools in the partition with minimum expected cost. The
+     * cost of the best partition of the first i individuals is the minimum, for all pool
+     * sizes s, of the cost of the first i-s individuals plus the cost of a pool with the
+     * next s individuals. Runs in O(n * maxPoolSize).
+     */
+    public int[] calculateOptimalPoolSizes(List<Individual> individuals)
+    {
+        int individualCount = individuals.size();
+        double[] cost = new double[individualCount + 1];
+        int[] lastPoolSize = new int[individualCount + 1];
+
+        for (int i = 1; i <= individualCount; i++)
+        {
+            double negativeProbability = 1.0;
+            cost[i] = Double.MAX_VALUE;
+
+            for (int size = 1; size <= maxPoolSize && size <= i; size++)
+            {
+                negativeProbability *= 1.0 - individuals.get(i - size).getPositiveProbability();
+                double poolCost = cost[i - size] + calculateExpectedPoolCost(size, negativeProbability);
+
+                if (poolCost < cost[i])
+                {
+                    cost[i] = poolCost;
+                    lastPoolSize[i] = size;
+                }
+            }
+        }
+
+        return collectPoolSizes(lastPoolSize);
+    }
+
+    /**
+     * Calculates the expected number of trials required by a pool
+     */
+    private double calculateExpectedPoolCost(int size, double negativeProbability)
+    {
+        if (size == 1)
+            return 1.0;
+
+        return 1.0 + size * (1.0 - negativeProbability);
+    }
+
+    /**
+     * Walks back the optimal decisions to collect the size of each pool in order
+     */
+    private int[] collectPoolSizes(int[] lastPoolSize)
+    {
+        int poolCount = 0;
+
+        for (int i = lastPoolSize.length - 1; i > 0; i -= lastPoolSize[i])
+            poolCount++;
+
+        int[] poolSizes = new int[poolCount];
+        int walker = poolCount - 1;
+
+        for (int i = lastPoolSize.length - 1; i > 0; i -= lastPoolSize[i])
+            poolSizes[walker--] = lastPoolSize[i];
+
+        return poolSizes;
+    }
+
+    /**
+     * Creates a testing set for the model
+     */
+    @Override
+    public TestingSet createTestingSet(int individuals)
+    {
+        return TestingSet.createSingleTrialForAllIndividuals(individuals);
+    }
+
+    /**
+     * All groups are tested in a single trial
+     */
+    @Override
+    public boolean isSingleTrialDesign(int individuals)
+    {
+        return true;
+    }
+
+    /**
+     * Returns a description of the model and its parameters
+     */
+    @Override
+    public String toString()
+    {
+        return "OptimalPartitionModel(" + maxPoolSize + ")";
+    }
+}
\ No newline at end of file
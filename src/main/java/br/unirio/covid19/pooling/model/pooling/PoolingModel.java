@@ -2,7 +2,11 @@ package br.unirio.covid19.pooling.model.pooling;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import br.unirio.covid19.pooling.events.TestingSetCreationEvent;
 import br.unirio.covid19.pooling.model.simulation.Individual;
 import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
 import br.unirio.covid19.pooling.model.simulation.IndividualGroupList;
@@ -13,6 +17,21 @@ import br.unirio.covid19.pooling.model.simulation.TestingSet;
  */
 public abstract class PoolingModel 
 {
+    /**
+     * Testing sets already created for each number of individuals
+     */
+    private Map<Integer, TestingSet> testingSetCache = new ConcurrentHashMap<Integer, TestingSet>();
+
+    /**
+     * Number of testing sets found in the cache of any pooling model
+     */
+    private static LongAdder testingSetCacheHits = new LongAdder();
+
+    /**
+     * Number of testing sets created because they were not in the cache of a pooling model
+     */
+    private static LongAdder testingSetCacheMisses = new LongAdder();
+
     /**
      * This function is called to split a set of individuals into testing groups
      */
@@ -23,6 +42,82 @@ public abstract class PoolingModel
      */
     public abstract TestingSet createTestingSet(int individuals);
 
+    /**
+     * Returns the testing set for a group of individuals, creating it only once for each
+     * group size. Testing sets depend only on the number of individuals in the group.
+     */
+    public TestingSet getTestingSet(int individuals)
+    {
+        TestingSet testingSet = testingSetCache.get(individuals);
+
+        if (testingSet == null)
+        {
+            TestingSetCreationEvent event = new TestingSetCreationEvent();
+            event.begin();
+            testingSet = createTestingSet(individuals);
+            testingSetCache.put(individuals, testingSet);
+
+            event.setModel(toString());
+            event.setIndividuals(individuals);
+            event.setTrials(testingSet.getTrials());
+            event.commit();
+            testingSetCacheMisses.increment();
+        }
+        else
+        {
+            testingSetCacheHits.increment();
+        }
+
+        return testingSet;
+    }
+
+    /**
+     * Returns the number of testing sets found in the cache of any pooling model
+     */
+    public static long getTestingSetCacheHits()
+    {
+        return testingSetCacheHits.sum();
+    }
+
+    /**
+     * Returns the number of testing sets created by any pooling model
+     */
+    public static long getTestingSetCacheMisses()
+    {
+        return testingSetCacheMisses.sum();
+    }
+
+    /**
+     * Indicates whether a group of individuals is tested in a single trial including all
+     * of them. Models that always use such a design override this function to avoid
+     * creating the testing set.
+     */
+    public boolean isSingleTrialDesign(int individuals)
+    {
+        TestingSet testingSet = getTestingSet(individuals);
+        return testingSet.getTrials() == 1 && testingSet.getIndividualsInTrial(0).length == individuals;
+    }
+
+    /**
+     * Returns the number of individuals in each group when a model splits individuals into
+     * groups of a fixed size in the order they are given, so that any run of whole groups
+     * may be split on its own. Returns zero, by default, when groups depend on the whole
+     * list of individuals, such as when they are sorted by positive probability.
+     */
+    public int getFixedGroupSize()
+    {
+        return 0;
+    }
+
+    /**
+     * Returns a description of the model, which by default is the name of its class
+     */
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName();
+    }
+
     /**
      * Split a set of individuals into groups of a given size
      */
@@ -56,11 +151,70 @@ public abstract class PoolingModel
     }
 
     /**
-     * Sorts individuals by their positive probability
+     * Sorts individuals by their positive probability. If the individuals have been ranked
+     * by probability, they are sorted by rank in linear time and ties keep a fixed order.
      */
     public void sortByPositiveProbability(List<Individual> individuals)
     {
-        individuals.sort(new IndividualComparatorByPositiveProbability());
+        int maxRank = calculateMaximumProbabilityRank(individuals);
+
+        if (maxRank >= 0)
+            sortByProbabilityRank(individuals, maxRank);
+        else
+            individuals.sort(new IndividualComparatorByPositiveProbability());
+    }
+
+    /**
+     * Returns the maximum probability rank among the individuals, or -1 if any of them
+     * has not been ranked
+     */
+    private int calculateMaximumProbabilityRank(List<Individual> individuals)
+    {
+        int maxRank = 0;
+
+        for (int i = 0; i < individuals.size(); i++)
+        {
+            int rank = individuals.get(i).getProbabilityRank();
+
+            if (rank < 0)
+                return -1;
+
+            maxRank = Math.max(maxRank, rank);
+        }
+
+        return maxRank;
+    }
+
+    /**
+     * Sorts individuals by their probability rank using a radix sort on the bytes of the
+     * rank that are needed to represent the maximum rank
+     */
+    private void sortByProbabilityRank(List<Individual> individuals, int maxRank)
+    {
+        int count = individuals.size();
+        Individual[] source = individuals.toArray(new Individual[count]);
+        Individual[] target = new Individual[count];
+
+        for (int shift = 0; shift < 32 && (shift == 0 || (maxRank >>> shift) > 0); shift += 8)
+        {
+            int[] positions = new int[257];
+
+            for (int i = 0; i < count; i++)
+                positions[((source[i].getProbabilityRank() >>> shift) & 0xFF) + 1]++;
+
+            for (int i = 0; i < 256; i++)
+                positions[i + 1] += positions[i];
+
+            for (int i = 0; i < count; i++)
+                target[positions[(source[i].getProbabilityRank() >>> shift) & 0xFF]++] = source[i];
+
+            Individual[] temp = source;
+            source = target;
+            target = temp;
+        }
+
+        for (int i = 0; i < count; i++)
+            individuals.set(i, source[i]);
     }
 }
 
@@ -0,0 +1,205 @@
+package br.unirio.covid19.pooling.model.pooling;
+
+import java.util.List;
+import java.util.Random;
+
+import br.unirio.covid19.pooling.model.simulation.Individual;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroupList;
+import br.unirio.covid19.pooling.model.simulation.TestingSet;
+
+/**
+ * Class that represents a non-adaptive pooling model based on a random sparse design,
+ * where each individual participates in exactly L of T trials and all trials have
+ * nearly the same number of individuals. Designs are generated in linear time from a
+ * seed, so that the same design is used for every group of the same size.
+ */
+public class RandomSparseModel extends PoolingModel
+{
+    /**
+     * Maximum number of attempts to remove a repeated trial from an individual
+     */
+    private static final int MAX_SWAP_ATTEMPTS = 1000;
+
+    /**
+     * Maximum number of shuffles before giving up on a design
+     */
+    private static final int MAX_DESIGN_ATTEMPTS = 100;
+
+    /**
+     * Number of individuals (n) in a group
+     */
+    private int groupSize;
+
+    /**
+     * Number of trials (T) for a full group
+     */
+    private int trials;
+
+    /**
+     * Number of trials on which each individual participates (L)
+     */
+    private int trialsPerIndividual;
+
+    /**
+     * Seed used to generate the designs
+     */
+    private long seed;
+
+    /**
+     * Initializes a random sparse pooling model
+     */
+    public RandomSparseModel(int groupSize, int trials, int trialsPerIndividual, long seed)
+    {
+        if (trialsPerIndividual < 1 || trialsPerIndividual > trials)
+            throw new IllegalArgumentException("Each individual must participate in at least one and at most all trials");
+
+        this.groupSize = groupSize;
+        this.trials = trials;
+        this.trialsPerIndividual = trialsPerIndividual;
+        this.seed = seed;
+    }
+
+    /**
+     * Split the individuals in groups
+     */
+    @Override
+    public IndividualGroupList splitIndividualsIntoGroups(List<Individual> individuals)
+    {
+        return splitIntoGroups(individuals, groupSize);
+    }
+
+    /**
+     * Returns the size of the groups
+     */
+    @Override
+    public int getFixedGroupSize()
+    {
+        return groupSize;
+    }
+
+    /**
+     * Creates a testing set for the model, reducing the number of trials in proportion
+     * to the size of partial groups. Groups that would require as many trials as
+     * individuals are tested in a single pool.
+     */
+    @Override
+    public TestingSet createTestingSet(int individuals)
+    {
+        int trialCount = Math.max(trialsPerIndividual, (int) Math.ceil((double) trials * individuals / groupSize));
+
+        if (trialCount >= individuals)
+            return TestingSet.createSingleTrialForAllIndividuals(individuals);
+
+        return createRandomSparseTestingSet(individuals, trialCount);
+    }
+
+    /**
+     * Creates a random sparse testing set. Each individual receives trialsPerIndividual
+     * slots, slots are assigned to trials in round robin (so that trials have balanced
+     * sizes) and then shuffled. Individuals that received the same trial twice swap
+     * slots with other individuals; if a repeated trial cannot be removed, the slots are
+     * shuffled again. The testing set is built directly from the slots.
+     */
+    public TestingSet createRandomSparseTestingSet(int individuals, int trialCount)
+    {
+        Random random = new Random(seed * 31 + individuals);
+        int slotCount = individuals * trialsPerIndividual;
+        int[] slots = new int[slotCount];
+
+        for (int i = 0; i < slotCount; i++)
+            slots[i] = i % trialCount;
+
+        for (int design = 0; design < MAX_DESIGN_ATTEMPTS; design++)
+        {
+            for (int i = slotCount - 1; i > 0; i--)
+                swap(slots, i, random.nextInt(i + 1));
+
+            if (removeRepeatedTrials(slots, random))
+                return createTestingSet(individuals, trialCount, slots);
+        }
+
+        throw new IllegalStateException("Could not generate a random sparse design for " + individuals + " individuals in " + trialCount + " trials");
+    }
+
+    /**
+     * Swaps slots of individuals that received the same trial twice, returning false if
+     * any repeated trial remains
+     */
+    private boolean removeRepeatedTrials(int[] slots, Random random)
+    {
+        int slotCount = slots.length;
+
+        for (int i = 0; i < slotCount; i++)
+        {
+            for (int attempt = 0; attempt < MAX_SWAP_ATTEMPTS && isRepeatedInIndividual(slots, i, slots[i]); attempt++)
+            {
+                int j = random.nextInt(slotCount);
+
+                if (!isRepeatedInIndividual(slots, i, slots[j]) && !isRepeatedInIndividual(slots, j, slots[i]))
+                    swap(slots, i, j);
+            }
+
+            if (isRepeatedInIndividual(slots, i, slots[i]))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Creates the testing set from the trial assigned to each slot. Slots are visited in
+     * individual order, so the individuals of each trial are listed in increasing order.
+     */
+    private TestingSet createTestingSet(int individuals, int trialCount, int[] slots)
+    {
+        int[] trialSizes = new int[trialCount];
+
+        for (int trial : slots)
+            trialSizes[trial]++;
+
+        int[][] individualsInTrial = new int[trialCount][];
+
+        for (int trial = 0; trial < trialCount; trial++)
+            individualsInTrial[trial] = new int[trialSizes[trial]];
+
+        int[] walkers = new int[trialCount];
+
+        for (int i = 0; i < slots.length; i++)
+            individualsInTrial[slots[i]][walkers[slots[i]]++] = i / trialsPerIndividual;
+
+        return TestingSet.createFromTrials(individuals, individualsInTrial);
+    }
+
+    /**
+     * Checks whether a trial is used in another slot of the individual owning a slot
+     */
+    private boolean isRepeatedInIndividual(int[] slots, int slot, int trial)
+    {
+        int first = (slot / trialsPerIndividual) * trialsPerIndividual;
+
+        for (int i = first; i < first + trialsPerIndividual; i++)
+            if (i != slot && slots[i] == trial)
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Swaps two slots
+     */
+    private void swap(int[] slots, int i, int j)
+    {
+        int temp = slots[i];
+        slots[i] = slots[j];
+        slots[j] = temp;
+    }
+
+    /**
+     * Returns a description of the model and its parameters
+     */
+    @Override
+    public String toString()
+    {
+        return "RandomSparseModel(" + groupSize + "," + trials + "," + trialsPerIndividual + "," + seed + ")";
+    }
+}
\ No newline at end of file
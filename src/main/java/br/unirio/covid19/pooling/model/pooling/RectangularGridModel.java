@@ -0,0 +1,115 @@
+package br.unirio.covid19.pooling.model.pooling;
+
+import java.util.List;
+
+import br.unirio.covid19.pooling.model.simulation.Individual;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroupList;
+import br.unirio.covid19.pooling.model.simulation.TestingSet;
+
+/**
+ * Class that represents a pooling model that uses a rectangular grid with one pool
+ * per row and one pool per column, such as the 8 x 12 layout of a 96-well plate.
+ * Partially filled grids use the sub-grid with the fewest row and column pools that
+ * holds their individuals, filled row by row.
+ */
+public class RectangularGridModel extends PoolingModel
+{
+    private int rows;
+
+    private int columns;
+
+    /**
+     * Initializes the testing model
+     */
+    public RectangularGridModel(int rows, int columns)
+    {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Split the individuals in groups
+     */
+    @Override
+    public IndividualGroupList splitIndividualsIntoGroups(List<Individual> individuals) 
+    {
+        return splitIntoGroups(individuals, rows * columns);
+    }
+
+    /**
+     * Returns the size of the groups
+     */
+    @Override
+    public int getFixedGroupSize()
+    {
+        return rows * columns;
+    }
+
+    /**
+     * Creates a testing set for the model. Partial groups are placed in the smallest
+     * sub-grid that holds them and groups whose sub-grid would require as many trials
+     * as individuals are tested in a single pool.
+     */
+    @Override
+    public TestingSet createTestingSet(int individuals) 
+    {
+        int usedRows = findUsedRows(individuals);
+        int usedColumns = (individuals + usedRows - 1) / usedRows;
+
+        if (usedRows + usedColumns >= individuals)
+            return TestingSet.createSingleTrialForAllIndividuals(individuals);
+
+        return createRectangularGridTestingSet(individuals, usedRows, usedColumns);
+    }
+
+    /**
+     * Finds the number of rows of the sub-grid that holds a number of individuals with
+     * the fewest row and column pools, without exceeding the rows and columns of the grid
+     */
+    private int findUsedRows(int individuals)
+    {
+        int bestRows = rows;
+        int bestTrials = Integer.MAX_VALUE;
+
+        for (int usedRows = 1; usedRows <= rows; usedRows++)
+        {
+            int usedColumns = (individuals + usedRows - 1) / usedRows;
+
+            if (usedColumns <= columns && usedRows + usedColumns < bestTrials)
+            {
+                bestRows = usedRows;
+                bestTrials = usedRows + usedColumns;
+            }
+        }
+
+        return bestRows;
+    }
+
+    /**
+     * Creates a rectangular grid distribution, filling the given rows and columns row
+     * by row
+     */
+    public TestingSet createRectangularGridTestingSet(int individuals, int usedRows, int usedColumns)
+    {
+        TestingSet set = new TestingSet(individuals, usedRows + usedColumns);
+
+        for (int index = 0; index < individuals; index++)
+        {
+            int row = index / usedColumns;
+            int column = index % usedColumns;
+            set.setIndividualInTrial(index, row, true);
+            set.setIndividualInTrial(index, usedRows + column, true);
+        }
+
+        return set;
+    }
+
+    /**
+     * Returns a description of the model and its parameters
+     */
+    @Override
+    public String toString()
+    {
+        return "RectangularGridModel(" + rows + "," + columns + ")";
+    }
+}
\ No newline at end of file
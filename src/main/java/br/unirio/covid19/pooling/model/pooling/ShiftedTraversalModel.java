@@ -48,6 +48,15 @@ public class ShiftedTraversalModel extends PoolingModel
 		return splitIntoGroups(individuals, groupSize);
 	}
 
+    /**
+     * Returns the size of the groups
+     */
+    @Override
+    public int getFixedGroupSize()
+    {
+        return groupSize;
+    }
+
     /**
      * Creates a testing set for a number of individuals
      */
@@ -158,4 +167,13 @@ public class ShiftedTraversalModel extends PoolingModel
 
         return (int) Math.floor(individual / Math.pow(trialsInLayer, compressionPower));
     }
+
+    /**
+     * Returns a description of the model and its parameters
+     */
+    @Override
+    public String toString()
+    {
+        return "ShiftedTraversalModel(" + groupSize + "," + trialsInLayer + "," + numberOfLayers + ")";
+    }
 }
\ No newline at end of file
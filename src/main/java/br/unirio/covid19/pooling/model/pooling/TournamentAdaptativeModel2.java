@@ -60,4 +60,22 @@ public class TournamentAdaptativeModel2 extends PoolingModel
     {
         return TestingSet.createSingleTrialForAllIndividuals(individuals);
     }
+
+    /**
+     * All groups are tested in a single trial
+     */
+    @Override
+    public boolean isSingleTrialDesign(int individuals)
+    {
+        return true;
+    }
+
+    /**
+     * Returns a description of the model and its parameters
+     */
+    @Override
+    public String toString()
+    {
+        return "TournamentAdaptativeModel2(" + poolSize + ")";
+    }
 }
\ No newline at end of file
@@ -38,6 +38,16 @@ public class TournamentModel extends PoolingModel
         return splitIntoGroups(individuals, poolSize);
     }
 
+    /**
+     * Returns the size of the groups, or zero when individuals are sorted by their
+     * positive probability
+     */
+    @Override
+    public int getFixedGroupSize()
+    {
+        return orderByProbability ? 0 : poolSize;
+    }
+
     /**
      * Creates a testing set for the model
      */
@@ -46,4 +56,22 @@ public class TournamentModel extends PoolingModel
     {
         return TestingSet.createSingleTrialForAllIndividuals(individuals);
     }
+
+    /**
+     * All groups are tested in a single trial
+     */
+    @Override
+    public boolean isSingleTrialDesign(int individuals)
+    {
+        return true;
+    }
+
+    /**
+     * Returns a description of the model and its parameters
+     */
+    @Override
+    public String toString()
+    {
+        return "TournamentModel(" + poolSize + "," + orderByProbability + ")";
+    }
 }
\ No newline at end of file
@@ -0,0 +1,226 @@
+package br.unirio.covid19.pooling.model.simulation;
+
+/**
+ * Class that decodes the trials of a testing set as their results arrive, one at a
+ * time, reaching the same results of the decoding of all trials at once. An individual
+ * is resolved as negative when the last of its trials is reported negative, and as
+ * positive as soon as it is the only individual not resolved as negative in a positive
+ * trial. Individuals that can no longer be resolved are reported as soon as this is
+ * known, so that they can be retested before all results arrive.
+ */
+public class IncrementalTestingSetDecoder
+{
+    /**
+     * Interface that receives the individuals resolved by the decoder
+     */
+    public interface ResolutionListener
+    {
+        /**
+         * Called when an individual is resolved as positive or negative
+         */
+        void individualResolved(int individual, boolean positive);
+
+        /**
+         * Called when an individual cannot be resolved by the trials of the testing set
+         */
+        void individualUnresolvable(int individual);
+    }
+
+    private static final byte PENDING = 0;
+    private static final byte NEGATIVE = 1;
+    private static final byte POSITIVE = 2;
+    private static final byte UNRESOLVABLE = 3;
+
+    private TestingSet testingSet;
+    private ResolutionListener listener;
+
+    /**
+     * Result of each trial and state of each individual
+     */
+    private byte[] trialResults;
+    private byte[] individualStates;
+
+    /**
+     * Number of trials not yet reported and reported positive for each individual
+     */
+    private int[] pendingTrials;
+    private int[] positiveTrials;
+
+    /**
+     * Number of individuals not resolved as negative in each trial
+     */
+    private int[] membersNotNegative;
+
+    private int reportedTrials;
+
+    /**
+     * Initializes the decoder for a testing set
+     */
+    public IncrementalTestingSetDecoder(TestingSet testingSet, ResolutionListener listener)
+    {
+        int individuals = testingSet.getIndividuals();
+        int trials = testingSet.getTrials();
+
+        this.testingSet = testingSet;
+        this.listener = listener;
+        this.trialResults = new byte[trials];
+        this.individualStates = new byte[individuals];
+        this.pendingTrials = new int[individuals];
+        this.positiveTrials = new int[individuals];
+        this.membersNotNegative = new int[trials];
+        this.reportedTrials = 0;
+
+        for (int i = 0; i < individuals; i++)
+            pendingTrials[i] = testingSet.getTrialsWithIndividual(i).length;
+
+        for (int trial = 0; trial < trials; trial++)
+            membersNotNegative[trial] = testingSet.getIndividualsInTrial(trial).length;
+    }
+
+    /**
+     * Reports the result of a trial
+     */
+    public void report(int trial, boolean positive)
+    {
+        if (trialResults[trial] != PENDING)
+            throw new IllegalArgumentException("Trial " + trial + " has already been reported");
+
+        trialResults[trial] = positive ? POSITIVE : NEGATIVE;
+        reportedTrials++;
+        int[] members = testingSet.getIndividualsInTrial(trial);
+
+        for (int individual : members)
+        {
+            pendingTrials[individual]--;
+
+            if (positive)
+                positiveTrials[individual]++;
+        }
+
+        if (!positive)
+        {
+            for (int individual : members)
+                if (pendingTrials[individual] == 0 && positiveTrials[individual] == 0)
+                    resolveNegative(individual);
+        }
+        else
+        {
+            resolveSinglePositive(trial);
+
+            // members of a positive trial can no longer be negative, which may leave
+            // the individuals sharing their positive trials without resolution
+            for (int member : members)
+                for (int memberTrial : testingSet.getTrialsWithIndividual(member))
+                    if (trialResults[memberTrial] == POSITIVE)
+                        for (int individual : testingSet.getIndividualsInTrial(memberTrial))
+                            checkUnresolvable(individual);
+        }
+
+        for (int individual : members)
+            checkUnresolvable(individual);
+    }
+
+    /**
+     * Resolves an individual as negative and checks its positive trials for a single
+     * remaining individual
+     */
+    private void resolveNegative(int individual)
+    {
+        individualStates[individual] = NEGATIVE;
+        listener.individualResolved(individual, false);
+
+        for (int trial : testingSet.getTrialsWithIndividual(individual))
+        {
+            membersNotNegative[trial]--;
+
+            if (trialResults[trial] == POSITIVE)
+                resolveSinglePositive(trial);
+        }
+    }
+
+    /**
+     * Resolves as positive the only individual not resolved as negative in a positive trial
+     */
+    private void resolveSinglePositive(int trial)
+    {
+        if (membersNotNegative[trial] != 1)
+            return;
+
+        for (int individual : testingSet.getIndividualsInTrial(trial))
+        {
+            if (individualStates[individual] != NEGATIVE)
+            {
+                if (individualStates[individual] == PENDING)
+                {
+                    individualStates[individual] = POSITIVE;
+                    listener.individualResolved(individual, true);
+                }
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reports an individual as unresolvable if all of its trials have been reported and
+     * each of its positive trials has another individual that cannot be negative
+     */
+    private void checkUnresolvable(int individual)
+    {
+        if (individualStates[individual] != PENDING || pendingTrials[individual] > 0 || positiveTrials[individual] == 0)
+            return;
+
+        for (int trial : testingSet.getTrialsWithIndividual(individual))
+        {
+            if (trialResults[trial] == POSITIVE && !hasAnotherMemberNotNegative(trial, individual))
+                return;
+        }
+
+        individualStates[individual] = UNRESOLVABLE;
+        listener.individualUnresolvable(individual);
+    }
+
+    /**
+     * Checks whether a trial has an individual, besides a given one, with a positive trial
+     */
+    private boolean hasAnotherMemberNotNegative(int trial, int individual)
+    {
+        for (int member : testingSet.getIndividualsInTrial(trial))
+            if (member != individual && positiveTrials[member] > 0)
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Indicates whether all trials have been reported
+     */
+    public boolean isComplete()
+    {
+        return reportedTrials == trialResults.length;
+    }
+
+    /**
+     * Finishes the decoding, reporting the individuals that were not resolved. Individuals
+     * that do not participate in any trial are resolved as negative.
+     */
+    public void finish()
+    {
+        for (int individual = 0; individual < individualStates.length; individual++)
+        {
+            if (individualStates[individual] != PENDING)
+                continue;
+
+            if (testingSet.getTrialsWithIndividual(individual).length == 0)
+            {
+                individualStates[individual] = NEGATIVE;
+                listener.individualResolved(individual, false);
+            }
+            else
+            {
+                individualStates[individual] = UNRESOLVABLE;
+                listener.individualUnresolvable(individual);
+            }
+        }
+    }
+}
\ No newline at end of file
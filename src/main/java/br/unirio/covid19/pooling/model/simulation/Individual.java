@@ -12,6 +12,8 @@ public class Individual
 
     private @Getter @Setter double positiveProbability;
 
+    private @Getter @Setter int probabilityRank;
+
     private @Getter @Setter boolean positive;
 
     private @Getter @Setter boolean resolved;
@@ -24,6 +26,7 @@ public class Individual
     {
         this.number = number;
         this.positiveProbability = 0.0;
+        this.probabilityRank = -1;
         clear();
     }
 
@@ -35,6 +38,13 @@ public class Individual
         this.confirmations = 0;
     }
 
+    public void resolve(boolean testedPositive)
+    {
+        this.resolved = true;
+        this.testedPositive = testedPositive;
+        this.confirmations++;
+    }
+
     @Override
     public String toString()
     {
@@ -26,6 +26,14 @@ public class IndividualGroupList
 		return groups.size();
 	}
 
+    /**
+     * Return a group given its index
+     */
+    public IndividualGroup getGroupByIndex(int index)
+    {
+        return groups.get(index);
+    }
+
     /**
      * Adds a group to the list
      */
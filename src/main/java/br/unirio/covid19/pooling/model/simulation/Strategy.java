@@ -35,6 +35,24 @@ public class Strategy
         return this;
     }
 
+    /**
+     * Returns a name for the strategy, listing its testing models
+     */
+    public String getName()
+    {
+        StringBuilder name = new StringBuilder();
+
+        for (PoolingModel testingModel : testingModels)
+        {
+            if (name.length() > 0)
+                name.append("+");
+
+            name.append(testingModel.toString());
+        }
+
+        return name.toString();
+    }
+
 	public IndividualGroupList splitIndividualsIntoGroups(List<Individual> unresolvedIndividuals) {
 		return null;
 	}
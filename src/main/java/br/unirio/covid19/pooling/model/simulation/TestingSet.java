@@ -1,5 +1,7 @@
 package br.unirio.covid19.pooling.model.simulation;
 
+import java.util.Arrays;
+
 import lombok.Getter;
 
 /**
@@ -12,8 +14,28 @@ public class TestingSet
 {
     private @Getter int individuals;
     private @Getter int trials;
+    /**
+     * Participation of each individual in each trial, or null while a sparse testing set
+     * is represented only by its indexes
+     */
     private boolean[][] matrix;
 
+    /**
+     * Individuals participating in each trial, built when first required
+     */
+    private volatile int[][] individualsInTrial;
+
+    /**
+     * Trials on which each individual participates, built when first required
+     */
+    private volatile int[][] trialsWithIndividual;
+
+    /**
+     * Individuals participating in each trial packed as bits in words of 64 individuals,
+     * built when first required
+     */
+    private volatile long[][] trialMasks;
+
     /**
      * Initializes a testing set for a given number of individuals and trials
      */
@@ -24,12 +46,30 @@ public class TestingSet
         matrix = new boolean[individuals][trials];
     }
 
+    /**
+     * Initializes a sparse testing set from the individuals participating in each trial
+     */
+    private TestingSet(int individuals, int[][] individualsInTrial, int[][] trialsWithIndividual)
+    {
+        this.individuals = individuals;
+        this.trials = individualsInTrial.length;
+        this.matrix = null;
+        this.individualsInTrial = individualsInTrial;
+        this.trialsWithIndividual = trialsWithIndividual;
+    }
+
     /**
      * Indicates whether an individual participates in a trial
      */
     public void setIndividualInTrial(int individual, int trial, boolean flag)
     {
+        if (matrix == null)
+            buildMatrix();
+
         matrix[individual][trial] = flag;
+        individualsInTrial = null;
+        trialsWithIndividual = null;
+        trialMasks = null;
     }
 
     /**
@@ -37,6 +77,9 @@ public class TestingSet
      */
     public boolean isIndividualInTrial(int individual, int trial) 
     {
+        if (matrix == null)
+            return Arrays.binarySearch(trialsWithIndividual[individual], trial) >= 0;
+
 		return matrix[individual][trial];
 	}
 
@@ -45,6 +88,9 @@ public class TestingSet
      */
     public int countIndividualsInTrial(int trial) 
     {
+        if (matrix == null)
+            return individualsInTrial[trial].length;
+
         int individualsInPool = 0;
 
         for (int j = 0; j < individuals; j++)
@@ -59,6 +105,9 @@ public class TestingSet
      */
     public int countTrialsWithIndividual(int individual) 
     {
+        if (matrix == null)
+            return trialsWithIndividual[individual].length;
+
         int poolCount = 0;
 
         for (int trial = 0; trial < trials; trial++)
@@ -69,24 +118,113 @@ public class TestingSet
     }
 
     /**
-     * Returns the individuals participating in a given trial
+     * Returns the individuals participating in a given trial, in increasing order. The
+     * array is shared by all callers and must not be changed.
      */
     public int[] getIndividualsInTrial(int trial) 
     {
-        int individualsInPool = countIndividualsInTrial(trial);
-        int[] result = new int[individualsInPool];
-        int individualWalker = 0;
+        if (individualsInTrial == null)
+            buildIndexes();
 
-        for (int individual = 0; individual < getIndividuals(); individual++)
+        return individualsInTrial[trial];
+    }
+
+    /**
+     * Returns the trials on which an individual participates, in increasing order. The
+     * array is shared by all callers and must not be changed.
+     */
+    public int[] getTrialsWithIndividual(int individual) 
+    {
+        if (trialsWithIndividual == null)
+            buildIndexes();
+
+        return trialsWithIndividual[individual];
+    }
+
+    /**
+     * Returns the individuals participating in each trial as bit masks, where bit (i % 64)
+     * of word (i / 64) represents individual i. The arrays are shared by all callers and
+     * must not be changed.
+     */
+    public long[][] getTrialMasks()
+    {
+        long[][] masks = trialMasks;
+
+        if (masks == null)
         {
-            if (isIndividualInTrial(individual, trial))
-            {
-                result[individualWalker] = individual;
-                individualWalker++;
-            }
+            int words = (individuals + 63) >>> 6;
+            masks = new long[trials][words];
+
+            for (int trial = 0; trial < trials; trial++)
+                for (int individual : getIndividualsInTrial(trial))
+                    masks[trial][individual >>> 6] |= 1L << individual;
+
+            trialMasks = masks;
         }
 
-        return result;
+        return masks;
+    }
+
+    /**
+     * Builds the lists of individuals per trial and trials per individual, so that sparse
+     * testing sets can be evaluated in time proportional to the number of memberships
+     */
+    private synchronized void buildIndexes()
+    {
+        if (individualsInTrial != null && trialsWithIndividual != null)
+            return;
+
+        if (matrix == null)
+            buildMatrix();
+
+        int[][] trialIndex = new int[trials][];
+
+        for (int trial = 0; trial < trials; trial++)
+        {
+            int[] result = new int[countIndividualsInTrial(trial)];
+            int individualWalker = 0;
+
+            for (int individual = 0; individual < individuals; individual++)
+                if (matrix[individual][trial])
+                    result[individualWalker++] = individual;
+
+            trialIndex[trial] = result;
+        }
+
+        int[][] individualIndex = new int[individuals][];
+
+        for (int individual = 0; individual < individuals; individual++)
+        {
+            int[] result = new int[countTrialsWithIndividual(individual)];
+            int trialWalker = 0;
+
+            for (int trial = 0; trial < trials; trial++)
+                if (matrix[individual][trial])
+                    result[trialWalker++] = trial;
+
+            individualIndex[individual] = result;
+        }
+
+        trialsWithIndividual = individualIndex;
+        individualsInTrial = trialIndex;
+    }
+
+    /**
+     * Builds the participation matrix of a sparse testing set from its indexes, before
+     * the testing set is changed
+     */
+    private synchronized void buildMatrix()
+    {
+        if (matrix != null)
+            return;
+
+        boolean[][] result = new boolean[individuals][trials];
+
+        for (int trial = 0; trial < trials; trial++)
+            for (int individual : individualsInTrial[trial])
+                result[individual][trial] = true;
+
+        matrix = result;
     }
 
     /**
@@ -101,7 +239,7 @@ public class TestingSet
         {
             for (int individual = 0; individual < individuals; individual++)
             {
-                if (matrix[individual][trial])
+                if (isIndividualInTrial(individual, trial))
                     result += "*";
                 else
                     result += ".";
@@ -113,6 +251,33 @@ public class TestingSet
         return result;
     }
 
+    /**
+     * Creates a sparse testing set from the individuals participating in each trial, given
+     * in increasing order. The lists of trials per individual are built in time
+     * proportional to the number of participations, without a participation matrix.
+     */
+    public static TestingSet createFromTrials(int individuals, int[][] individualsInTrial)
+    {
+        int[] trialCounts = new int[individuals];
+
+        for (int[] members : individualsInTrial)
+            for (int individual : members)
+                trialCounts[individual]++;
+
+        int[][] trialsWithIndividual = new int[individuals][];
+
+        for (int individual = 0; individual < individuals; individual++)
+            trialsWithIndividual[individual] = new int[trialCounts[individual]];
+
+        int[] walkers = new int[individuals];
+
+        for (int trial = 0; trial < individualsInTrial.length; trial++)
+            for (int individual : individualsInTrial[trial])
+                trialsWithIndividual[individual][walkers[individual]++] = trial;
+
+        return new TestingSet(individuals, individualsInTrial, trialsWithIndividual);
+    }
+
     /**
      * Creates a testing set with a single trial for all individuals
      */
@@ -0,0 +1,106 @@
+package br.unirio.covid19.pooling.model.simulation;
+
+/**
+ * Class that resolves the individuals of a group from the results of the trials in
+ * its testing set. It is shared by the simulation engine and by the decoding of
+ * observed lab results.
+ * 
+ * @author Márcio Barros
+ */
+public class TestingSetDecoder
+{
+    /**
+     * Calculates the results of a group of individuals from the results of a set of trials
+     */
+    public static void decode(boolean[] trialResults, TestingSet testingSet, IndividualGroup group) 
+    {
+        // all the variables present in at least one negative pool are tagged negative
+        resolveIndividualsInNegativeTrials(trialResults, testingSet, group);
+
+        // any variable present in at least one positive pool where all other variables have been tagged negative, is tagged positive
+        resolveSinglePositiveInPositiveTrial(trialResults, testingSet, group);
+    }
+
+    /**
+     * Mark all individuals in negative trials as resolved
+     */
+    private static void resolveIndividualsInNegativeTrials(boolean[] trialResults, TestingSet testingSet, IndividualGroup group) 
+    {
+        int individuals = testingSet.getIndividuals();
+
+        /*for (int i = 0; i < trials; i++)
+        {
+            if (!trialResults[i])
+            {
+                for (int j = 0; j < individuals; j++)
+                {
+                    if (testingSet.isIndividualInTrial(j, i))
+                    {
+                        Individual individual = group.getIndividualByIndex(j);
+                        individual.setResolved(true);
+                        individual.setTestedPositive(false);
+                        individual.setConfirmationLevel(individual.getConfirmationLevel() + 1);
+                    }
+                }
+            }
+        }*/
+
+        for (int i = 0; i < individuals; i++)
+        {
+            int[] trialsWithIndividual = testingSet.getTrialsWithIndividual(i);
+            int countNegativeTrials = 0;
+
+            for (int j = 0; j < trialsWithIndividual.length; j++)
+            {
+                if (!trialResults[trialsWithIndividual[j]])
+                    countNegativeTrials++;
+            }
+
+            if (trialsWithIndividual.length == countNegativeTrials)
+            {
+                Individual individual = group.getIndividualByIndex(i);
+                individual.resolve(false);
+            }
+        }
+    }
+
+    /**
+     * Mark unresolved individuals as positive all others are negative in a positive trial
+     */
+    private static void resolveSinglePositiveInPositiveTrial(boolean[] trialResults, TestingSet testingSet, IndividualGroup group) 
+    {
+        int trials = testingSet.getTrials();
+
+        for (int i = 0; i < trials; i++)
+        {
+            if (trialResults[i])
+            {
+                int[] individualsInTrial = testingSet.getIndividualsInTrial(i);
+                int individualCount = individualsInTrial.length;
+                int negativeCount = 0;
+                int positiveCount = 0;
+                Individual positiveIndividual = null;
+
+                for (int j = 0; j < individualCount; j++)
+                {
+                    Individual individual = group.getIndividualByIndex(individualsInTrial[j]);
+
+                    if (!individual.isResolved())
+                    {
+                        positiveCount++;
+                        positiveIndividual = individual;
+                    }
+                    else if (!individual.isTestedPositive())
+                    {
+                        negativeCount++;
+                    }
+                }
+
+                if (positiveCount == 1 && negativeCount == individualCount-1)
+                {
+                    positiveIndividual.resolve(true);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package br.unirio.covid19.pooling.model.simulation;
+
+import java.util.List;
+
+/**
+ * Interface for the laboratory that runs trials requested by adaptive pooling models
+ */
+public interface TrialEvaluator
+{
+    /**
+     * Runs a trial on a pool of individuals and returns whether it has tested positive
+     */
+    boolean runTrial(List<Individual> pool);
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package br.unirio.covid19.pooling.plan;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class that represents the calls for the samples of a pooling plan after decoding
+ * the results of its pools
+ */
+public class DecodingResult
+{
+    private Map<String, SampleCall> calls;
+    private List<String> retests;
+
+    /**
+     * Initializes an empty result
+     */
+    public DecodingResult(int sampleCount)
+    {
+        this.calls = new LinkedHashMap<String, SampleCall>(2 * sampleCount);
+        this.retests = new ArrayList<String>();
+    }
+
+    /**
+     * Sets the call for a sample
+     */
+    public void setCall(String barcode, SampleCall call)
+    {
+        calls.put(barcode, call);
+
+        if (call == SampleCall.RETEST)
+            retests.add(barcode);
+    }
+
+    /**
+     * Returns the call for a sample, or null if the sample is not in the plan
+     */
+    public SampleCall getCall(String barcode)
+    {
+        return calls.get(barcode);
+    }
+
+    /**
+     * Returns the calls for all samples, in the order they were added to the plan
+     */
+    public Map<String, SampleCall> getCalls()
+    {
+        return calls;
+    }
+
+    /**
+     * Returns the barcodes of the samples that must be tested again
+     */
+    public List<String> getRetests()
+    {
+        return retests;
+    }
+
+    /**
+     * Counts the samples with a given call
+     */
+    public int countCalls(SampleCall call)
+    {
+        int count = 0;
+
+        for (SampleCall value : calls.values())
+            if (value == call)
+                count++;
+
+        return count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package br.unirio.covid19.pooling.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import br.unirio.covid19.pooling.model.simulation.IncrementalTestingSetDecoder;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
+import br.unirio.covid19.pooling.model.simulation.TestingSet;
+
+/**
+ * Class that decodes the results of the pools of a plan as they arrive from the lab,
+ * calling samples as soon as their results are known. Negative samples can then be
+ * reported and retests queued before all pools have been tested.
+ */
+public class IncrementalPlanDecoder
+{
+    private PoolingPlan plan;
+    private SampleCallListener listener;
+    private List<IncrementalTestingSetDecoder> decoders;
+    private int reportedPools;
+
+    /**
+     * Initializes the decoder for a plan
+     */
+    public IncrementalPlanDecoder(PoolingPlan plan, SampleCallListener listener)
+    {
+        this.plan = plan;
+        this.listener = listener;
+        this.decoders = new ArrayList<IncrementalTestingSetDecoder>();
+        this.reportedPools = 0;
+
+        for (int i = 0; i < plan.countGroups(); i++)
+            decoders.add(createDecoder(plan.getGroup(i), plan.getTestingSet(i)));
+    }
+
+    /**
+     * Creates the decoder of a group, translating its individuals into samples
+     */
+    private IncrementalTestingSetDecoder createDecoder(IndividualGroup group, TestingSet testingSet)
+    {
+        return new IncrementalTestingSetDecoder(testingSet, new IncrementalTestingSetDecoder.ResolutionListener()
+        {
+            @Override
+            public void individualResolved(int individual, boolean positive)
+            {
+                listener.sampleCalled(plan.getBarcode(group.getIndividualByIndex(individual)), positive ? SampleCall.POSITIVE : SampleCall.NEGATIVE);
+            }
+
+            @Override
+            public void individualUnresolvable(int individual)
+            {
+                listener.sampleCalled(plan.getBarcode(group.getIndividualByIndex(individual)), SampleCall.RETEST);
+            }
+        });
+    }
+
+    /**
+     * Reports the result of a pool
+     */
+    public synchronized void report(String poolId, boolean positive)
+    {
+        Pool pool = plan.getPool(poolId);
+
+        if (pool == null)
+            throw new IllegalArgumentException("Unknown pool " + poolId);
+
+        decoders.get(pool.getGroup()).report(pool.getTrial(), positive);
+        reportedPools++;
+    }
+
+    /**
+     * Indicates whether the results of all pools have been reported
+     */
+    public synchronized boolean isComplete()
+    {
+        return reportedPools == plan.getPools().size();
+    }
+
+    /**
+     * Finishes the decoding, calling for retest all samples not yet called, including
+     * those in pools whose results never arrived
+     */
+    public synchronized void finish()
+    {
+        for (IncrementalTestingSetDecoder decoder : decoders)
+            decoder.finish();
+    }
+}
\ No newline at end of file
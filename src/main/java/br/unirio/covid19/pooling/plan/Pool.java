@@ -0,0 +1,40 @@
+package br.unirio.covid19.pooling.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Class that represents a pool to be tested in the lab, identified by its group and
+ * its trial in the group (for instance, "12.3")
+ */
+public class Pool
+{
+    private @Getter String id;
+
+    private @Getter int group;
+
+    private @Getter int trial;
+
+    private @Getter List<String> barcodes;
+
+    /**
+     * Initializes an empty pool
+     */
+    public Pool(int group, int trial)
+    {
+        this.id = (group + 1) + "." + (trial + 1);
+        this.group = group;
+        this.trial = trial;
+        this.barcodes = new ArrayList<String>();
+    }
+
+    /**
+     * Adds a sample to the pool
+     */
+    public void add(String barcode)
+    {
+        barcodes.add(barcode);
+    }
+}
\ No newline at end of file
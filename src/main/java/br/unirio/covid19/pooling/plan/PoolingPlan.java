@@ -0,0 +1,215 @@
+package br.unirio.covid19.pooling.plan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.unirio.covid19.pooling.model.simulation.Individual;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
+import br.unirio.covid19.pooling.model.simulation.TestingSet;
+import br.unirio.covid19.pooling.model.simulation.TestingSetDecoder;
+
+/**
+ * Class that represents the pools assigned to a batch of samples. The results of the
+ * pools observed in the lab are decoded with the same rules used in the simulations:
+ * samples in a negative pool are negative and the only unresolved sample in a positive
+ * pool is positive. Samples and pools are indexed by hash tables, so that decoding
+ * takes time proportional to the size of the plan.
+ */
+public class PoolingPlan
+{
+    private List<Sample> samples;
+    private List<Individual> individuals;
+    private List<IndividualGroup> groups;
+    private List<TestingSet> testingSets;
+    private List<Pool> pools;
+    private int[] firstPoolOfGroup;
+    private Map<String, Integer> sampleIndex;
+    private Map<String, Pool> poolIndex;
+
+    /**
+     * Initializes an empty plan for a list of samples, which are represented by
+     * individuals numbered in the order of the samples
+     */
+    public PoolingPlan(List<Sample> samples, List<Individual> individuals)
+    {
+        this.samples = samples;
+        this.individuals = individuals;
+        this.groups = new ArrayList<IndividualGroup>();
+        this.testingSets = new ArrayList<TestingSet>();
+        this.pools = new ArrayList<Pool>();
+        this.firstPoolOfGroup = null;
+        this.sampleIndex = new HashMap<String, Integer>(2 * samples.size());
+        this.poolIndex = new HashMap<String, Pool>();
+
+        for (int i = 0; i < samples.size(); i++)
+        {
+            String barcode = samples.get(i).getBarcode();
+
+            if (sampleIndex.put(barcode, i) != null)
+                throw new IllegalArgumentException("Repeated sample " + barcode);
+        }
+    }
+
+    /**
+     * Adds a group of individuals and the testing set that defines its pools
+     */
+    public void addGroup(IndividualGroup group, TestingSet testingSet)
+    {
+        int groupIndex = groups.size();
+        groups.add(group);
+        testingSets.add(testingSet);
+
+        for (int trial = 0; trial < testingSet.getTrials(); trial++)
+        {
+            Pool pool = new Pool(groupIndex, trial);
+
+            for (int index : testingSet.getIndividualsInTrial(trial))
+                pool.add(getBarcode(group.getIndividualByIndex(index)));
+
+            pools.add(pool);
+            poolIndex.put(pool.getId(), pool);
+        }
+
+        firstPoolOfGroup = null;
+    }
+
+    /**
+     * Returns the barcode of the sample represented by an individual
+     */
+    String getBarcode(Individual individual)
+    {
+        return samples.get(individual.getNumber() - 1).getBarcode();
+    }
+
+    /**
+     * Returns the number of groups in the plan
+     */
+    int countGroups()
+    {
+        return groups.size();
+    }
+
+    /**
+     * Returns a group of the plan
+     */
+    IndividualGroup getGroup(int index)
+    {
+        return groups.get(index);
+    }
+
+    /**
+     * Returns the testing set of a group of the plan
+     */
+    TestingSet getTestingSet(int index)
+    {
+        return testingSets.get(index);
+    }
+
+    /**
+     * Creates a decoder that calls samples as the results of their pools arrive
+     */
+    public IncrementalPlanDecoder createIncrementalDecoder(SampleCallListener listener)
+    {
+        return new IncrementalPlanDecoder(this, listener);
+    }
+
+    /**
+     * Returns the pools of the plan
+     */
+    public List<Pool> getPools()
+    {
+        return pools;
+    }
+
+    /**
+     * Returns a pool by its identifier, or null if it is not in the plan
+     */
+    public Pool getPool(String id)
+    {
+        return poolIndex.get(id);
+    }
+
+    /**
+     * Returns the number of samples in the plan
+     */
+    public int countSamples()
+    {
+        return samples.size();
+    }
+
+    /**
+     * Indicates whether a sample is in the plan
+     */
+    public boolean containsSample(String barcode)
+    {
+        return sampleIndex.containsKey(barcode);
+    }
+
+    /**
+     * Decodes the results observed for all pools of the plan, indexed by pool
+     * identifier, into a call for each sample
+     */
+    public synchronized DecodingResult decode(Map<String, Boolean> poolResults)
+    {
+        for (String id : poolResults.keySet())
+            if (!poolIndex.containsKey(id))
+                throw new IllegalArgumentException("Unknown pool " + id);
+
+        int[] firstPools = getFirstPoolOfGroup();
+
+        for (Individual individual : individuals)
+            individual.clear();
+
+        for (int i = 0; i < groups.size(); i++)
+        {
+            TestingSet testingSet = testingSets.get(i);
+            boolean[] trialResults = new boolean[testingSet.getTrials()];
+
+            for (int trial = 0; trial < trialResults.length; trial++)
+            {
+                Pool pool = pools.get(firstPools[i] + trial);
+                Boolean result = poolResults.get(pool.getId());
+
+                if (result == null)
+                    throw new IllegalArgumentException("Missing result for pool " + pool.getId());
+
+                trialResults[trial] = result;
+            }
+
+            TestingSetDecoder.decode(trialResults, testingSet, groups.get(i));
+        }
+
+        DecodingResult result = new DecodingResult(samples.size());
+
+        for (int i = 0; i < samples.size(); i++)
+        {
+            Individual individual = individuals.get(i);
+            SampleCall call = !individual.isResolved() ? SampleCall.RETEST : individual.isTestedPositive() ? SampleCall.POSITIVE : SampleCall.NEGATIVE;
+            result.setCall(samples.get(i).getBarcode(), call);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the position of the first pool of each group in the list of pools
+     */
+    private int[] getFirstPoolOfGroup()
+    {
+        if (firstPoolOfGroup == null)
+        {
+            firstPoolOfGroup = new int[groups.size()];
+            int first = 0;
+
+            for (int i = 0; i < groups.size(); i++)
+            {
+                firstPoolOfGroup[i] = first;
+                first += testingSets.get(i).getTrials();
+            }
+        }
+
+        return firstPoolOfGroup;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package br.unirio.covid19.pooling.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import br.unirio.covid19.pooling.model.pooling.PoolingModel;
+import br.unirio.covid19.pooling.model.simulation.Individual;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
+
+/**
+ * Class that assigns real samples to the pools of a pooling model. Adaptive models
+ * decide their next pools from the results of the previous ones, so only their
+ * initial pools, which are their testing sets, are part of the plan.
+ */
+public class PoolingPlanner
+{
+    private PoolingModel model;
+
+    /**
+     * Initializes the planner with a pooling model
+     */
+    public PoolingPlanner(PoolingModel model)
+    {
+        this.model = model;
+    }
+
+    /**
+     * Creates a plan assigning a batch of samples to pools
+     */
+    public PoolingPlan createPlan(List<Sample> samples)
+    {
+        List<Individual> individuals = new ArrayList<Individual>(samples.size());
+
+        for (int i = 0; i < samples.size(); i++)
+        {
+            Individual individual = new Individual(i + 1);
+            individual.setPositiveProbability(samples.get(i).getRisk());
+            individuals.add(individual);
+        }
+
+        PoolingPlan plan = new PoolingPlan(samples, individuals);
+
+        for (IndividualGroup group : model.splitIndividualsIntoGroups(new ArrayList<Individual>(individuals)).getGroups())
+        {
+            int individualCount = group.countIndividuals();
+
+            if (individualCount == 0)
+                continue;
+
+            plan.addGroup(group, model.getTestingSet(individualCount));
+        }
+
+        return plan;
+    }
+}
\ No newline at end of file
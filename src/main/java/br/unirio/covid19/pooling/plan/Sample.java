@@ -0,0 +1,22 @@
+package br.unirio.covid19.pooling.plan;
+
+import lombok.Getter;
+
+/**
+ * Class that represents a sample received by the lab, identified by its barcode
+ */
+public class Sample
+{
+    private @Getter String barcode;
+
+    private @Getter double risk;
+
+    /**
+     * Initializes a sample with its barcode and positive probability
+     */
+    public Sample(String barcode, double risk)
+    {
+        this.barcode = barcode;
+        this.risk = risk;
+    }
+}
\ No newline at end of file
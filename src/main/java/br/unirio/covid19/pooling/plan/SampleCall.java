@@ -0,0 +1,11 @@
+package br.unirio.covid19.pooling.plan;
+
+/**
+ * Enumeration of the calls for a sample after decoding the results of its pools
+ */
+public enum SampleCall
+{
+    NEGATIVE,
+    POSITIVE,
+    RETEST
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package br.unirio.covid19.pooling.plan;
+
+/**
+ * Interface that receives the calls for samples as soon as they are known
+ */
+public interface SampleCallListener
+{
+    void sampleCalled(String barcode, SampleCall call);
+}
\ No newline at end of file
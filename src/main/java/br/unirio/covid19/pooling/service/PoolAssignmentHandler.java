@@ -0,0 +1,193 @@
+package br.unirio.covid19.pooling.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import br.unirio.covid19.pooling.experiment.StrategyParser;
+import br.unirio.covid19.pooling.model.pooling.PoolingModel;
+import br.unirio.covid19.pooling.plan.Pool;
+import br.unirio.covid19.pooling.plan.PoolingPlan;
+import br.unirio.covid19.pooling.plan.PoolingPlanner;
+import br.unirio.covid19.pooling.plan.Sample;
+
+/**
+ * Class that handles requests for pool assignments. The request body has one sample
+ * per line, with its identifier and positive probability separated by a tab, and the
+ * "strategy" query parameter holds a strategy specification. The response lists the
+ * samples in each pool of the first model of the strategy, since the following models
+ * depend on the results of the first pools. Adaptive models return their initial pools.
+ */
+public class PoolAssignmentHandler implements HttpHandler
+{
+    /**
+     * Maximum number of bytes in a request body
+     */
+    private static final int MAX_BODY_SIZE = 16 << 20;
+
+    private StrategyParser parser;
+
+    /**
+     * Initializes the handler with a parser shared by all requests, so that equal
+     * models and their testing sets are reused
+     */
+    public PoolAssignmentHandler(StrategyParser parser)
+    {
+        this.parser = parser;
+    }
+
+    /**
+     * Handles a request
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            if (!"POST".equals(exchange.getRequestMethod()))
+            {
+                sendResponse(exchange, 405, "Pool assignments require a POST request\n");
+                return;
+            }
+
+            String specification = getQueryParameter(exchange.getRequestURI(), "strategy");
+
+            if (specification == null)
+            {
+                sendResponse(exchange, 400, "Missing strategy parameter\n");
+                return;
+            }
+
+            PoolingModel model = parser.parseStrategy(specification).getTestingModelForIndex(0);
+            byte[] bytes = exchange.getRequestBody().readNBytes(MAX_BODY_SIZE + 1);
+
+            if (bytes.length > MAX_BODY_SIZE)
+            {
+                sendResponse(exchange, 413, "Request body larger than " + MAX_BODY_SIZE + " bytes\n");
+                return;
+            }
+
+            String body = new String(bytes, StandardCharsets.UTF_8);
+            PoolingPlan plan = new PoolingPlanner(model).createPlan(readSamples(body));
+            sendResponse(exchange, 200, describePools(plan));
+        }
+        catch (IllegalArgumentException e)
+        {
+            sendResponse(exchange, 400, e.getMessage() + "\n");
+        }
+        catch (RuntimeException e)
+        {
+            sendResponse(exchange, 500, "Error while creating the pools: " + e + "\n");
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Reads the samples in the request body
+     */
+    private List<Sample> readSamples(String body)
+    {
+        List<Sample> samples = new ArrayList<Sample>();
+        String[] lines = body.split("\r?\n");
+
+        for (int i = 0; i < lines.length; i++)
+        {
+            String line = lines[i].trim();
+
+            if (line.length() == 0)
+                continue;
+
+            String[] fields = line.split("\t");
+
+            if (fields.length != 2)
+                throw new IllegalArgumentException("Line " + (i + 1) + ": expected sample identifier and risk");
+
+            double risk = parseRisk(fields[1].trim(), i + 1);
+            samples.add(new Sample(fields[0].trim(), risk));
+        }
+
+        if (samples.isEmpty())
+            throw new IllegalArgumentException("No samples in the request");
+
+        return samples;
+    }
+
+    /**
+     * Parses the risk of a sample, which must be a probability
+     */
+    private double parseRisk(String text, int line)
+    {
+        try
+        {
+            double risk = Double.parseDouble(text);
+
+            if (risk >= 0.0 && risk <= 1.0)
+                return risk;
+        }
+        catch (NumberFormatException e)
+        {
+        }
+
+        throw new IllegalArgumentException("Line " + line + ": invalid risk '" + text + "'");
+    }
+
+    /**
+     * Lists the samples in each pool of a plan
+     */
+    private String describePools(PoolingPlan plan)
+    {
+        StringBuilder sb = new StringBuilder("pool\tsample\n");
+
+        for (Pool pool : plan.getPools())
+            for (String barcode : pool.getBarcodes())
+                sb.append(pool.getId()).append('\t').append(barcode).append('\n');
+
+        return sb.toString();
+    }
+
+    /**
+     * Returns the value of a query parameter, or null if it is not present
+     */
+    private String getQueryParameter(URI uri, String name)
+    {
+        String query = uri.getRawQuery();
+
+        if (query == null)
+            return null;
+
+        for (String parameter : query.split("&"))
+        {
+            int equals = parameter.indexOf('=');
+
+            if (equals > 0 && parameter.substring(0, equals).equals(name))
+                return URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+        }
+
+        return null;
+    }
+
+    /**
+     * Sends a plain text response
+     */
+    private void sendResponse(HttpExchange exchange, int status, String text) throws IOException
+    {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/tab-separated-values; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        try (OutputStream out = exchange.getResponseBody())
+        {
+            out.write(bytes);
+        }
+    }
+}
\ No newline at end of file
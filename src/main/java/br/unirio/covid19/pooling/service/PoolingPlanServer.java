@@ -0,0 +1,89 @@
+package br.unirio.covid19.pooling.service;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpServer;
+
+import br.unirio.covid19.pooling.experiment.StrategyParser;
+
+/**
+ * Class that serves pool assignments over HTTP using the server embedded in the JDK.
+ * Requests are handled by a fixed pool of worker threads sharing the same pooling
+ * models, so that testing sets are created once and reused by all requests. Only the
+ * models used most recently are kept, since specifications come from the clients.
+ *
+ * <pre>
+ * curl --data-binary @samples.tsv "http://localhost:8080/pools?strategy=TournamentModel(4,true)"
+ * </pre>
+ */
+public class PoolingPlanServer
+{
+    /**
+     * Disables Nagle's algorithm in the embedded server, which otherwise delays small
+     * responses by tens of milliseconds
+     */
+    static
+    {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    /**
+     * Maximum number of pooling models kept with their testing sets
+     */
+    private static final int MAX_MODELS = 256;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Initializes the server on a port with a number of worker threads
+     */
+    public PoolingPlanServer(int port, int threads) throws IOException
+    {
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server.createContext("/pools", new PoolAssignmentHandler(new StrategyParser(MAX_MODELS)));
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * Starts serving requests
+     */
+    public void start()
+    {
+        server.start();
+    }
+
+    /**
+     * Stops the server, waiting up to a number of seconds for running requests
+     */
+    public void stop(int delay)
+    {
+        server.stop(delay);
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the port where the server listens
+     */
+    public int getPort()
+    {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Main program: receives the port and the number of threads
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 8080;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        PoolingPlanServer server = new PoolingPlanServer(port, threads);
+        server.start();
+        System.out.println("Serving pool assignments on port " + server.getPort());
+    }
+}
\ No newline at end of file
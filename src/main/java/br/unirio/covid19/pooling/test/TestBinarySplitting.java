@@ -0,0 +1,85 @@
+package br.unirio.covid19.pooling.test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import br.unirio.covid19.pooling.model.pooling.BinarySplittingModel;
+import br.unirio.covid19.pooling.model.simulation.Individual;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the binary splitting adaptive pooling model
+ */
+public class TestBinarySplitting 
+{
+    /**
+     * Test: without test errors, every individual is resolved with its true result and no
+     * pool is tested twice, for groups with more positives than expected
+     */
+    public void testErrorFreeResolution(int groupSize, double positiveProbability, int positives, int samples)
+    {
+        BinarySplittingModel model = new BinarySplittingModel(groupSize);
+        Random random = new Random(1234);
+
+        for (int sample = 0; sample < samples; sample++)
+        {
+            IndividualGroup group = new IndividualGroup();
+
+            for (int i = 0; i < groupSize; i++)
+            {
+                Individual individual = new Individual(i + 1);
+                individual.setPositiveProbability(positiveProbability);
+                group.add(individual);
+            }
+
+            for (int i = 0; i < positives; i++)
+                group.getIndividualByIndex(random.nextInt(groupSize)).setPositive(true);
+
+            Set<List<Integer>> testedPools = new HashSet<List<Integer>>();
+
+            model.runAdaptiveTrials(group, pool -> 
+            {
+                List<Integer> numbers = new ArrayList<Integer>();
+                boolean result = false;
+
+                for (Individual individual : pool)
+                {
+                    numbers.add(individual.getNumber());
+                    result |= individual.isPositive();
+                }
+
+                assertTrue(testedPools.add(numbers));
+                return result;
+            });
+
+            for (Individual individual : group.getIndividuals())
+            {
+                assertTrue(individual.isResolved());
+                assertEquals(individual.isPositive(), individual.isTestedPositive());
+            }
+        }
+    }
+
+    /**
+     * Main program for testing
+     */
+    public static final void main(String[] args)
+    {
+        TestBinarySplitting test = new TestBinarySplitting();
+
+        System.out.println("Test error-free resolution for BS(32) with one expected positive ...");
+        test.testErrorFreeResolution(32, 0.01, 3, 1000);
+
+        System.out.println("Test error-free resolution for BS(100) with four expected positives ...");
+        test.testErrorFreeResolution(100, 0.04, 8, 1000);
+
+        System.out.println("Test error-free resolution for BS(16) without positives ...");
+        test.testErrorFreeResolution(16, 0.01, 0, 10);
+    }
+}
\ No newline at end of file
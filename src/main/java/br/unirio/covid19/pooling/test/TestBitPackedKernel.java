@@ -0,0 +1,129 @@
+package br.unirio.covid19.pooling.test;
+
+import java.util.Random;
+
+import br.unirio.covid19.pooling.engine.BitPackedTrialKernel;
+import br.unirio.covid19.pooling.model.pooling.RandomSparseModel;
+import br.unirio.covid19.pooling.model.pooling.RectangularGridModel;
+import br.unirio.covid19.pooling.model.pooling.ShiftedTraversalModel;
+import br.unirio.covid19.pooling.model.simulation.Individual;
+import br.unirio.covid19.pooling.model.simulation.IndividualGroup;
+import br.unirio.covid19.pooling.model.simulation.TestingSet;
+import br.unirio.covid19.pooling.model.simulation.TestingSetDecoder;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the bit-packed decoding of the trials of a group
+ */
+public class TestBitPackedKernel 
+{
+    /**
+     * Creates a group of individuals with the given positives
+     */
+    private IndividualGroup createGroup(boolean[] positives)
+    {
+        IndividualGroup group = new IndividualGroup();
+
+        for (int i = 0; i < positives.length; i++)
+        {
+            Individual individual = new Individual(i + 1);
+            individual.setPositive(positives[i]);
+            group.add(individual);
+        }
+
+        return group;
+    }
+
+    /**
+     * Creates a design where even individuals are first tested alone and then every
+     * individual is tested with the next one, so that positives resolved in the first
+     * trials are members of later positive trials
+     */
+    private TestingSet createChainTestingSet(int individuals)
+    {
+        int singleTrials = (individuals + 1) / 2;
+        TestingSet ts = new TestingSet(individuals, singleTrials + individuals - 1);
+
+        for (int i = 0; i < individuals; i += 2)
+            ts.setIndividualInTrial(i, i / 2, true);
+
+        for (int i = 0; i < individuals - 1; i++)
+        {
+            ts.setIndividualInTrial(i, singleTrials + i, true);
+            ts.setIndividualInTrial(i + 1, singleTrials + i, true);
+        }
+
+        return ts;
+    }
+
+    /**
+     * Test: the bit-packed and scalar decoders resolve the same individuals with the same
+     * results, for random positives and trial results with errors drawn from a fixed seed
+     */
+    public void testSameResolutions(TestingSet ts, double prevalence, double errorProbability, int samples)
+    {
+        Random random = new Random(1234);
+        int individuals = ts.getIndividuals();
+
+        for (int sample = 0; sample < samples; sample++)
+        {
+            boolean[] positives = new boolean[individuals];
+
+            for (int i = 0; i < individuals; i++)
+                positives[i] = random.nextDouble() < prevalence;
+
+            boolean[] trialResults = new boolean[ts.getTrials()];
+
+            for (int trial = 0; trial < ts.getTrials(); trial++)
+            {
+                for (int individual : ts.getIndividualsInTrial(trial))
+                    trialResults[trial] |= positives[individual];
+
+                if (random.nextDouble() < errorProbability)
+                    trialResults[trial] = !trialResults[trial];
+            }
+
+            IndividualGroup scalar = createGroup(positives);
+            IndividualGroup packed = createGroup(positives);
+            TestingSetDecoder.decode(trialResults, ts, scalar);
+            BitPackedTrialKernel.decode(trialResults, ts, packed);
+
+            for (int i = 0; i < individuals; i++)
+            {
+                Individual expected = scalar.getIndividualByIndex(i);
+                Individual actual = packed.getIndividualByIndex(i);
+                assertEquals(expected.isResolved(), actual.isResolved());
+                assertEquals(expected.isTestedPositive(), actual.isTestedPositive());
+                assertEquals(expected.getConfirmations(), actual.getConfirmations());
+            }
+        }
+    }
+
+    /**
+     * Main program for testing
+     */
+    public static final void main(String[] args)
+    {
+        TestBitPackedKernel test = new TestBitPackedKernel();
+
+        System.out.println("Test same resolutions for RG(8, 12) with 96 and 50 individuals ...");
+        test.testSameResolutions(new RectangularGridModel(8, 12).createTestingSet(96), 0.02, 0.05, 10000);
+        test.testSameResolutions(new RectangularGridModel(8, 12).createTestingSet(50), 0.05, 0.05, 10000);
+
+        System.out.println("Test same resolutions for STD(100, 11, 4) and STD(9, 3, 4) ...");
+        test.testSameResolutions(new ShiftedTraversalModel(100, 11, 4).createTestingSet(100), 0.02, 0.05, 10000);
+        test.testSameResolutions(new ShiftedTraversalModel(9, 3, 4).createTestingSet(9), 0.1, 0.05, 10000);
+
+        System.out.println("Test same resolutions for RS(200, 40, 3) and RS(64, 16, 2) ...");
+        test.testSameResolutions(new RandomSparseModel(200, 40, 3, 7).createTestingSet(200), 0.01, 0.05, 10000);
+        test.testSameResolutions(new RandomSparseModel(64, 16, 2, 7).createTestingSet(64), 0.03, 0.05, 10000);
+
+        System.out.println("Test same resolutions for RS(100, 80, 1) and RS(100, 120, 2), with positives resolved in single trials ...");
+        test.testSameResolutions(new RandomSparseModel(100, 80, 1, 7).createRandomSparseTestingSet(100, 80), 0.02, 0.05, 10000);
+        test.testSameResolutions(new RandomSparseModel(100, 120, 2, 7).createRandomSparseTestingSet(100, 120), 0.05, 0.05, 10000);
+
+        System.out.println("Test same resolutions for a chain of 150 individuals ...");
+        test.testSameResolutions(test.createChainTestingSet(150), 0.1, 0.05, 10000);
+    }
+}
\ No newline at end of file
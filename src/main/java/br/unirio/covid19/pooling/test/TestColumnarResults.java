@@ -0,0 +1,124 @@
+package br.unirio.covid19.pooling.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import br.unirio.covid19.pooling.engine.ColumnarResultReader;
+import br.unirio.covid19.pooling.engine.ColumnarResultWriter;
+import br.unirio.covid19.pooling.engine.TextResultWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the columnar binary format of round results
+ */
+public class TestColumnarResults 
+{
+    private static final String HEADER = "id\tspec\tsens\tprev\terrors\ttrials";
+
+    /**
+     * Test: rows written in the binary format are read back unchanged and converted to
+     * the same bytes as the text format. Round ids change every few rows and return to
+     * earlier values, trials go up and down, and the rows span several blocks with a
+     * partial block flushed in the middle.
+     */
+    public void testRoundTrip(int rowCount) throws IOException
+    {
+        File directory = Files.createTempDirectory("columnar").toFile();
+        File text = new File(directory, "results.csv");
+        File binary = new File(directory, "results.bin");
+        File converted = new File(directory, "converted.csv");
+
+        String[] roundIds = new String[rowCount];
+        int[] errors = new int[rowCount];
+        int[] trials = new int[rowCount];
+        createRows(roundIds, errors, trials);
+
+        try (TextResultWriter textWriter = new TextResultWriter(text.getPath(), HEADER); ColumnarResultWriter binaryWriter = new ColumnarResultWriter(binary.getPath(), HEADER))
+        {
+            for (int i = 0; i < rowCount; i++)
+            {
+                textWriter.write(roundIds[i], errors[i], trials[i]);
+                binaryWriter.write(roundIds[i], errors[i], trials[i]);
+
+                if (i == rowCount / 3)
+                    binaryWriter.flush();
+            }
+        }
+
+        try (ColumnarResultReader reader = new ColumnarResultReader(binary.getPath()))
+        {
+            assertEquals(HEADER, reader.getHeader());
+
+            for (int i = 0; i < rowCount; i++)
+            {
+                assertTrue(reader.next());
+                assertEquals(roundIds[i], reader.getRoundId());
+                assertEquals(errors[i], reader.getErrors());
+                assertEquals(trials[i], reader.getTrials());
+            }
+
+            assertFalse(reader.next());
+        }
+
+        ColumnarResultReader.convertToText(binary.getPath(), converted.getPath());
+        byte[] expected = Files.readAllBytes(text.toPath());
+        byte[] actual = Files.readAllBytes(converted.toPath());
+        assertEquals(expected.length, actual.length);
+
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], actual[i]);
+
+        text.delete();
+        binary.delete();
+        converted.delete();
+        directory.delete();
+    }
+
+    /**
+     * Creates rows with a fixed seed. Trials include zero and the largest integer, so that
+     * their differences reach the limits of an integer in both directions.
+     */
+    private void createRows(String[] roundIds, int[] errors, int[] trials)
+    {
+        Random random = new Random(1234);
+        String roundId = "";
+
+        for (int i = 0; i < roundIds.length; i++)
+        {
+            if (i % 7 == 0)
+                roundId = (random.nextInt(5) == 0) ? "" : "TR" + random.nextInt(50) + "\t" + random.nextInt(100) + "\t" + random.nextInt(1000);
+
+            roundIds[i] = roundId;
+            errors[i] = (random.nextInt(10) == 0) ? random.nextInt(1000) : 0;
+
+            if (i % 1000 == 1)
+                trials[i] = Integer.MAX_VALUE;
+            else if (i % 1000 == 2)
+                trials[i] = 0;
+            else
+                trials[i] = 200 + random.nextInt(800);
+        }
+    }
+
+    /**
+     * Main program for testing
+     */
+    public static final void main(String[] args) throws IOException
+    {
+        TestColumnarResults test = new TestColumnarResults();
+
+        System.out.println("Test round trip with no rows ...");
+        test.testRoundTrip(0);
+
+        System.out.println("Test round trip with 1000 rows ...");
+        test.testRoundTrip(1000);
+
+        System.out.println("Test round trip with 200000 rows ...");
+        test.testRoundTrip(200000);
+    }
+}
\ No newline at end of file
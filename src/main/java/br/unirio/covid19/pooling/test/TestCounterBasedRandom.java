@@ -0,0 +1,117 @@
+package br.unirio.covid19.pooling.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import br.unirio.covid19.pooling.engine.SimulationResult;
+import br.unirio.covid19.pooling.engine.Simulator;
+import br.unirio.covid19.pooling.experiment.StrategyParser;
+import br.unirio.covid19.pooling.model.simulation.Strategy;
+import br.unirio.covid19.pooling.utils.CounterBasedRandom;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the counter-based random number generator and the keyed random streams
+ * of the simulator
+ */
+public class TestCounterBasedRandom 
+{
+    /**
+     * Test: a block matches the known answer of Philox4x32-10 in Random123 for a key and
+     * a counter
+     */
+    public void testKnownAnswer(int key0, int key1, int counter0, int counter1, int counter2, int counter3, int[] expected)
+    {
+        int[] block = CounterBasedRandom.generateBlock(key0, key1, counter0, counter1, counter2, counter3);
+        assertEquals(expected.length, block.length);
+
+        for (int i = 0; i < block.length; i++)
+            assertEquals(expected[i], block[i]);
+    }
+
+    /**
+     * Test: seeking a position in a stream returns the same numbers as reading it from
+     * the start
+     */
+    public void testSeek(int position)
+    {
+        CounterBasedRandom random = new CounterBasedRandom(1, 2, 3, 4);
+
+        for (int i = 0; i < position; i++)
+            random.nextDouble();
+
+        double expected = random.nextDouble();
+        random.seek(position);
+        assertEquals(expected, random.nextDouble(), 0.0);
+    }
+
+    /**
+     * Test: each round of a keyed simulation run alone gives the same results as in a run
+     * of all rounds, for any number of threads
+     */
+    public void testReplayedRounds(String specification, int individuals, double prevalence, int rounds, int threads) throws IOException
+    {
+        Strategy strategy = new StrategyParser().parseStrategy(specification);
+        int[] expected = readRounds(createSimulator(individuals, prevalence, 1).run(0, rounds, strategy));
+
+        try (Simulator simulator = createSimulator(individuals, prevalence, threads))
+        {
+            for (int round = 0; round < rounds; round++)
+            {
+                int[] replayed = readRounds(simulator.run(round, 1, strategy));
+                assertEquals(expected[2 * round], replayed[0]);
+                assertEquals(expected[2 * round + 1], replayed[1]);
+            }
+        }
+    }
+
+    /**
+     * Creates a simulator with keyed random streams
+     */
+    private Simulator createSimulator(int individuals, double prevalence, int threads)
+    {
+        return new Simulator(individuals, 0.05, 0.01).setPositiveProbability(prevalence).setThreads(threads).setRandomKey(42, 3);
+    }
+
+    /**
+     * Returns the trials and errors of each round of a simulation
+     */
+    private int[] readRounds(SimulationResult results) throws IOException
+    {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        results.save(new DataOutputStream(buffer));
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+        int[] rounds = new int[2 * input.readInt()];
+
+        for (int i = 0; i < rounds.length; i++)
+            rounds[i] = input.readInt();
+
+        return rounds;
+    }
+
+    /**
+     * Main program for testing
+     */
+    public static final void main(String[] args) throws IOException
+    {
+        TestCounterBasedRandom test = new TestCounterBasedRandom();
+
+        System.out.println("Test known answers for zero and all-ones keys and counters ...");
+        test.testKnownAnswer(0, 0, 0, 0, 0, 0, new int[] { 0x6627e8d5, 0xe169c58d, 0xbc57ac4c, 0x9b00dbd8 });
+        test.testKnownAnswer(-1, -1, -1, -1, -1, -1, new int[] { 0x408f276d, 0x41c83b0e, 0xa20bc7c6, 0x6d5451fd });
+        test.testKnownAnswer(0xa4093822, 0x299f31d0, 0x243f6a88, 0x85a308d3, 0x13198a2e, 0x03707344, new int[] { 0xd16cfe09, 0x94fdcceb, 0x5001e420, 0x24126ea1 });
+
+        System.out.println("Test seek to even and odd positions ...");
+        test.testSeek(6);
+        test.testSeek(7);
+
+        System.out.println("Test replayed rounds with 1 and 4 threads ...");
+        test.testReplayedRounds("TournamentModel(4,true)+OptimalPartitionModel(10)", 5000, 0.05, 8, 1);
+        test.testReplayedRounds("RectangularGridModel(8,12)+HierarchicalModel(16,4,1)", 100000, 0.02, 4, 4);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package br.unirio.covid19.pooling.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import br.unirio.covid19.pooling.model.pooling.PoolingModel;
+import br.unirio.covid19.pooling.model.pooling.RandomSparseModel;
+import br.unirio.covid19.pooling.model.pooling.RectangularGridModel;
+import br.unirio.covid19.pooling.model.pooling.ShiftedTraversalModel;
+import br.unirio.covid19.pooling.model.pooling.TournamentModel;
+import br.unirio.covid19.pooling.plan.DecodingResult;
+import br.unirio.covid19.pooling.plan.IncrementalPlanDecoder;
+import br.unirio.covid19.pooling.plan.Pool;
+import br.unirio.covid19.pooling.plan.PoolingPlan;
+import br.unirio.covid19.pooling.plan.PoolingPlanner;
+import br.unirio.covid19.pooling.plan.Sample;
+import br.unirio.covid19.pooling.plan.SampleCall;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the pooling plans of real samples
+ */
+public class TestPoolingPlan 
+{
+    /**
+     * Creates a batch of samples with random risks
+     */
+    private List<Sample> createSamples(int count, Random random)
+    {
+        List<Sample> samples = new ArrayList<Sample>();
+
+        for (int i = 0; i < count; i++)
+            samples.add(new Sample("BC" + (1000000 + i), 0.05 * random.nextDouble()));
+
+        return samples;
+    }
+
+    /**
+     * Calculates the error-free result of each pool from the positive samples
+     */
+    private Map<String, Boolean> calculatePoolResults(PoolingPlan plan, Set<String> positives)
+    {
+        Map<String, Boolean> results = new HashMap<String, Boolean>();
+
+        for (Pool pool : plan.getPools())
+        {
+            boolean positive = false;
+
+            for (String barcode : pool.getBarcodes())
+                positive |= positives.contains(barcode);
+
+            results.put(pool.getId(), positive);
+        }
+
+        return results;
+    }
+
+    /**
+     * Test: without lab errors, no positive sample is called negative, no negative
+     * sample is called positive, and every sample is either called or retested
+     */
+    public void testDecoding(PoolingModel model, int sampleCount)
+    {
+        Random random = new Random(42);
+        List<Sample> samples = createSamples(sampleCount, random);
+        Set<String> positives = new HashSet<String>();
+
+        for (Sample sample : samples)
+            if (random.nextDouble() < sample.getRisk())
+                positives.add(sample.getBarcode());
+
+        PoolingPlan plan = new PoolingPlanner(model).createPlan(samples);
+        long start = System.currentTimeMillis();
+        DecodingResult result = plan.decode(calculatePoolResults(plan, positives));
+        System.out.println("  decoded " + sampleCount + " samples in " + (System.currentTimeMillis() - start) + " ms, " + result.getRetests().size() + " retests");
+
+        assertEquals(sampleCount, result.getCalls().size());
+
+        for (Sample sample : samples)
+        {
+            SampleCall call = result.getCall(sample.getBarcode());
+
+            if (positives.contains(sample.getBarcode()))
+                assertTrue(call != SampleCall.NEGATIVE);
+            else
+                assertTrue(call != SampleCall.POSITIVE);
+        }
+
+        assertEquals(result.countCalls(SampleCall.RETEST), result.getRetests().size());
+    }
+
+    /**
+     * Test: decoding pools one at a time, in random order, calls every sample as the
+     * decoding of all pools, with pool results flipped by lab errors with a probability
+     */
+    public void testIncrementalDecoding(PoolingModel model, int sampleCount, double errorProbability)
+    {
+        Random random = new Random(7);
+        List<Sample> samples = createSamples(sampleCount, random);
+        Set<String> positives = new HashSet<String>();
+
+        for (Sample sample : samples)
+            if (random.nextDouble() < sample.getRisk())
+                positives.add(sample.getBarcode());
+
+        PoolingPlan plan = new PoolingPlanner(model).createPlan(samples);
+        Map<String, Boolean> poolResults = calculatePoolResults(plan, positives);
+
+        for (Pool pool : plan.getPools())
+            if (random.nextDouble() < errorProbability)
+                poolResults.put(pool.getId(), !poolResults.get(pool.getId()));
+
+        DecodingResult expected = plan.decode(poolResults);
+
+        Map<String, SampleCall> calls = new HashMap<String, SampleCall>();
+        IncrementalPlanDecoder decoder = plan.createIncrementalDecoder((barcode, call) -> assertTrue(calls.put(barcode, call) == null));
+        List<Pool> pools = new ArrayList<Pool>(plan.getPools());
+        Collections.shuffle(pools, random);
+
+        for (Pool pool : pools)
+            decoder.report(pool.getId(), poolResults.get(pool.getId()));
+
+        assertTrue(decoder.isComplete());
+        decoder.finish();
+        assertEquals(expected.getCalls(), calls);
+    }
+
+    /**
+     * Test: repeated barcodes are rejected
+     */
+    public void testRepeatedBarcode()
+    {
+        List<Sample> samples = new ArrayList<Sample>();
+        samples.add(new Sample("A", 0.1));
+        samples.add(new Sample("A", 0.1));
+
+        try
+        {
+            new PoolingPlanner(new TournamentModel(4, true)).createPlan(samples);
+            assertTrue(false);
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+    }
+
+    /**
+     * Main program for testing
+     */
+    public static final void main(String[] args)
+    {
+        TestPoolingPlan test = new TestPoolingPlan();
+
+        System.out.println("Test decoding for TR(4) with 100000 samples ...");
+        test.testDecoding(new TournamentModel(4, true), 100000);
+
+        System.out.println("Test decoding for RS(30, 10, 2) with 100000 samples ...");
+        test.testDecoding(new RandomSparseModel(30, 10, 2, 1), 100000);
+
+        System.out.println("Test incremental decoding for RS(30, 10, 2) with 10000 samples ...");
+        test.testIncrementalDecoding(new RandomSparseModel(30, 10, 2, 1), 10000, 0.0);
+
+        System.out.println("Test incremental decoding for RG(8, 12) and STD(100, 11, 4) with 10000 samples ...");
+        test.testIncrementalDecoding(new RectangularGridModel(8, 12), 10000, 0.0);
+        test.testIncrementalDecoding(new ShiftedTraversalModel(100, 11, 4), 10000, 0.0);
+
+        System.out.println("Test incremental decoding with 5% of pool results flipped ...");
+        test.testIncrementalDecoding(new RandomSparseModel(30, 10, 2, 1), 10000, 0.05);
+        test.testIncrementalDecoding(new RectangularGridModel(8, 12), 10000, 0.05);
+        test.testIncrementalDecoding(new ShiftedTraversalModel(100, 11, 4), 10000, 0.05);
+        test.testIncrementalDecoding(new ShiftedTraversalModel(9, 3, 4), 10000, 0.2);
+
+        System.out.println("Test repeated barcode ...");
+        test.testRepeatedBarcode();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package br.unirio.covid19.pooling.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import br.unirio.covid19.pooling.model.pooling.TournamentModel;
+import br.unirio.covid19.pooling.model.simulation.Individual;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the sorting of individuals by their probability rank
+ */
+public class TestProbabilityRankSort 
+{
+    /**
+     * Test: individuals are sorted by rank when the largest rank needs a given number of
+     * bits, keeping the order of individuals with the same rank
+     */
+    public void testSortByRank(int individualCount, int rankBits)
+    {
+        Random random = new Random(1234);
+        int maxRank = (int) ((1L << rankBits) - 1);
+        List<Individual> individuals = new ArrayList<Individual>();
+
+        for (int i = 0; i < individualCount; i++)
+        {
+            Individual individual = new Individual(i + 1);
+            individual.setProbabilityRank((i == 0) ? maxRank : random.nextInt(maxRank));
+            individuals.add(individual);
+        }
+
+        new TournamentModel(4, true).sortByPositiveProbability(individuals);
+        assertEquals(individualCount, individuals.size());
+
+        for (int i = 1; i < individualCount; i++)
+        {
+            Individual previous = individuals.get(i - 1);
+            Individual current = individuals.get(i);
+            assertTrue(previous.getProbabilityRank() <= current.getProbabilityRank());
+
+            if (previous.getProbabilityRank() == current.getProbabilityRank())
+                assertTrue(previous.getNumber() < current.getNumber());
+        }
+    }
+
+    /**
+     * Main program for testing
+     */
+    public static final void main(String[] args)
+    {
+        TestProbabilityRankSort test = new TestProbabilityRankSort();
+
+        System.out.println("Test sort by ranks of 8 and 16 bits ...");
+        test.testSortByRank(10000, 8);
+        test.testSortByRank(10000, 16);
+
+        System.out.println("Test sort by ranks of 25 and 31 bits, above 2^24 ...");
+        test.testSortByRank(10000, 25);
+        test.testSortByRank(10000, 31);
+    }
+}
\ No newline at end of file
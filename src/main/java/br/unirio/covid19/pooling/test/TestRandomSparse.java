@@ -0,0 +1,108 @@
+package br.unirio.covid19.pooling.test;
+
+import br.unirio.covid19.pooling.model.pooling.RandomSparseModel;
+import br.unirio.covid19.pooling.model.simulation.TestingSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the random sparse pooling model
+ */
+public class TestRandomSparse 
+{
+    /**
+     * Test: every individual participates in the same number of trials
+     */
+    public void testConstantTrialsPerIndividual(int individuals, int trials, int trialsPerIndividual)
+    {
+        RandomSparseModel model = new RandomSparseModel(individuals, trials, trialsPerIndividual, 1234);
+        TestingSet ts = model.createTestingSet(individuals);
+
+        for (int i = 0; i < individuals; i++)
+            assertEquals(trialsPerIndividual, ts.countTrialsWithIndividual(i));
+    }
+
+    /**
+     * Test: the number of individuals in any two trials differ by at most one
+     */
+    public void testBalancedTrials(int individuals, int trials, int trialsPerIndividual)
+    {
+        RandomSparseModel model = new RandomSparseModel(individuals, trials, trialsPerIndividual, 1234);
+        TestingSet ts = model.createTestingSet(individuals);
+
+        int minimum = Integer.MAX_VALUE;
+        int maximum = 0;
+
+        for (int trial = 0; trial < ts.getTrials(); trial++)
+        {
+            int count = ts.countIndividualsInTrial(trial);
+            minimum = Math.min(minimum, count);
+            maximum = Math.max(maximum, count);
+        }
+
+        assertTrue(maximum - minimum <= 1);
+    }
+
+    /**
+     * Test: the same seed produces the same design
+     */
+    public void testSeededDesign(int individuals, int trials, int trialsPerIndividual)
+    {
+        TestingSet first = new RandomSparseModel(individuals, trials, trialsPerIndividual, 99).createTestingSet(individuals);
+        TestingSet second = new RandomSparseModel(individuals, trials, trialsPerIndividual, 99).createTestingSet(individuals);
+        assertEquals(first.toString(), second.toString());
+    }
+
+    /**
+     * Test: the indexes of the design agree with the participation of each individual
+     */
+    public void testIndexes(int individuals, int trials, int trialsPerIndividual)
+    {
+        TestingSet ts = new RandomSparseModel(individuals, trials, trialsPerIndividual, 7).createRandomSparseTestingSet(individuals, trials);
+
+        for (int i = 0; i < individuals; i++)
+        {
+            int[] trialsWithIndividual = ts.getTrialsWithIndividual(i);
+            assertEquals(trialsPerIndividual, trialsWithIndividual.length);
+
+            for (int trial : trialsWithIndividual)
+                assertTrue(ts.isIndividualInTrial(i, trial));
+        }
+
+        int participations = 0;
+
+        for (int trial = 0; trial < ts.getTrials(); trial++)
+        {
+            for (int individual : ts.getIndividualsInTrial(trial))
+                assertTrue(ts.isIndividualInTrial(individual, trial));
+
+            participations += ts.countIndividualsInTrial(trial);
+        }
+
+        assertEquals(individuals * trialsPerIndividual, participations);
+    }
+
+    /**
+     * Main program for testing
+     */
+    public static final void main(String[] args)
+    {
+        TestRandomSparse test = new TestRandomSparse();
+
+        System.out.println("Test constant trials per individual for RS(1000, 100, 3) ...");
+        test.testConstantTrialsPerIndividual(1000, 100, 3);
+
+        System.out.println("Test balanced trials for RS(1000, 100, 3) ...");
+        test.testBalancedTrials(1000, 100, 3);
+
+        System.out.println("Test seeded design for RS(200, 40, 4) ...");
+        test.testSeededDesign(200, 40, 4);
+
+        System.out.println("Test indexes for RS(1000, 100, 3) ...");
+        test.testIndexes(1000, 100, 3);
+
+        System.out.println("Test indexes for RS(60, 6, 6) ...");
+        test.testIndexes(60, 6, 6);
+    }
+}
\ No newline at end of file
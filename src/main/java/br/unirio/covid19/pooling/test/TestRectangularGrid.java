@@ -0,0 +1,96 @@
+package br.unirio.covid19.pooling.test;
+
+import br.unirio.covid19.pooling.model.pooling.RectangularGridModel;
+import br.unirio.covid19.pooling.model.simulation.TestingSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the rectangular grid pooling model
+ */
+public class TestRectangularGrid 
+{
+    /**
+     * Test: a full plate uses one pool per row and one pool per column
+     */
+    public void testFullPlate(int rows, int columns)
+    {
+        TestingSet ts = new RectangularGridModel(rows, columns).createTestingSet(rows * columns);
+        assertEquals(rows + columns, ts.getTrials());
+
+        for (int trial = 0; trial < rows; trial++)
+            assertEquals(columns, ts.countIndividualsInTrial(trial));
+
+        for (int trial = rows; trial < rows + columns; trial++)
+            assertEquals(rows, ts.countIndividualsInTrial(trial));
+    }
+
+    /**
+     * Test: a partial plate uses the sub-grid with the fewest pools
+     */
+    public void testPartialPlate(int rows, int columns, int individuals, int expectedTrials)
+    {
+        TestingSet ts = new RectangularGridModel(rows, columns).createTestingSet(individuals);
+        assertEquals(expectedTrials, ts.getTrials());
+    }
+
+    /**
+     * Test: for every partial plate, either a single pool is used or every individual
+     * is in one row and one column pool, no pool is empty, no two individuals share both
+     * pools and fewer trials than individuals are required
+     */
+    public void testEveryPartialPlate(int rows, int columns)
+    {
+        RectangularGridModel model = new RectangularGridModel(rows, columns);
+        int previousTrials = 0;
+
+        for (int individuals = 1; individuals <= rows * columns; individuals++)
+        {
+            TestingSet ts = model.createTestingSet(individuals);
+            assertTrue(ts.getTrials() >= previousTrials);
+            previousTrials = ts.getTrials();
+
+            if (ts.getTrials() == 1)
+                continue;
+
+            assertTrue(ts.getTrials() < individuals);
+
+            for (int trial = 0; trial < ts.getTrials(); trial++)
+                assertTrue(ts.countIndividualsInTrial(trial) > 0);
+
+            for (int i = 0; i < individuals; i++)
+            {
+                int[] trials = ts.getTrialsWithIndividual(i);
+                assertEquals(2, trials.length);
+
+                for (int j = i + 1; j < individuals; j++)
+                    assertTrue(!ts.isIndividualInTrial(j, trials[0]) || !ts.isIndividualInTrial(j, trials[1]));
+            }
+        }
+    }
+
+    /**
+     * Main program for testing
+     */
+    public static final void main(String[] args)
+    {
+        TestRectangularGrid test = new TestRectangularGrid();
+
+        System.out.println("Test full plate for RG(8, 12) ...");
+        test.testFullPlate(8, 12);
+
+        System.out.println("Test partial plates for RG(8, 12) ...");
+        test.testPartialPlate(8, 12, 5, 1);
+        test.testPartialPlate(8, 12, 13, 8);
+        test.testPartialPlate(8, 12, 24, 10);
+        test.testPartialPlate(8, 12, 48, 14);
+        test.testPartialPlate(8, 12, 95, 20);
+
+        System.out.println("Test every partial plate for RG(8, 12) ...");
+        test.testEveryPartialPlate(8, 12);
+
+        System.out.println("Test every partial plate for RG(3, 20) ...");
+        test.testEveryPartialPlate(3, 20);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package br.unirio.covid19.pooling.utils;
+
+/**
+ * Counter-based random number generator (Philox4x32-10, Salmon et al., 2011). Each
+ * stream is identified by a seed, a scenario, a round, a purpose and a substream, and
+ * its numbers are a function of these keys and of their position in the stream. Any
+ * stream can thus be created in constant time, regardless of the streams used before,
+ * so that results do not depend on the order in which rounds are executed.
+ */
+public class CounterBasedRandom implements RandomStream
+{
+    private static final int MULTIPLIER_0 = 0xD2511F53;
+    private static final int MULTIPLIER_1 = 0xCD9E8D57;
+    private static final int WEYL_0 = 0x9E3779B9;
+    private static final int WEYL_1 = 0xBB67AE85;
+    private static final int ROUNDS = 10;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    /**
+     * Key derived from the seed and the purpose of the stream
+     */
+    private int key0;
+    private int key1;
+
+    /**
+     * Fixed words of the counter: substream, round and scenario
+     */
+    private int substream;
+    private int round;
+    private int scenario;
+
+    /**
+     * Index of the next block of the stream and the block being consumed
+     */
+    private int block;
+    private int[] output;
+    private int outputPosition;
+
+    /**
+     * Initializes a stream
+     */
+    public CounterBasedRandom(long seed, int scenario, int round, int purpose, int substream)
+    {
+        int[] key = generateBlock((int) seed, (int) (seed >>> 32), purpose, 0, 0, 0);
+        this.key0 = key[0];
+        this.key1 = key[1];
+        this.substream = substream;
+        this.round = round;
+        this.scenario = scenario;
+        this.block = 0;
+        this.output = null;
+        this.outputPosition = 4;
+    }
+
+    /**
+     * Initializes the first substream of a stream
+     */
+    public CounterBasedRandom(long seed, int scenario, int round, int purpose)
+    {
+        this(seed, scenario, round, purpose, 0);
+    }
+
+    /**
+     * Moves the stream to a position, counted in random real numbers
+     */
+    public void seek(long position)
+    {
+        block = (int) (position >>> 1);
+        output = null;
+        outputPosition = 4;
+
+        if ((position & 1) != 0)
+            nextDouble();
+    }
+
+    /**
+     * Fetch a single random real number between 0.0 and 1.0 
+     */
+    @Override
+    public double nextDouble()
+    {
+        if (outputPosition >= 4)
+        {
+            output = generateBlock(key0, key1, block++, substream, round, scenario);
+            outputPosition = 0;
+        }
+
+        long high = (output[outputPosition++] >>> 5) & 0x7FFFFFFL;
+        long low = (output[outputPosition++] >>> 6) & 0x3FFFFFFL;
+        return ((high << 26) | low) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Fetch a single random integer between low and high including the bounds 
+     */
+    @Override
+    public int nextInt(int low, int high)
+    {
+        if (low >= high)
+            return low;
+
+        int result = low + (int) (nextDouble() * (high - low + 1));
+        return Math.min(result, high);
+    }
+
+    /**
+     * Generates the four words of a block from a key and a counter
+     */
+    public static int[] generateBlock(int key0, int key1, int counter0, int counter1, int counter2, int counter3)
+    {
+        int c0 = counter0;
+        int c1 = counter1;
+        int c2 = counter2;
+        int c3 = counter3;
+        int k0 = key0;
+        int k1 = key1;
+
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            long product0 = (MULTIPLIER_0 & 0xFFFFFFFFL) * (c0 & 0xFFFFFFFFL);
+            long product1 = (MULTIPLIER_1 & 0xFFFFFFFFL) * (c2 & 0xFFFFFFFFL);
+            int next0 = (int) (product1 >>> 32) ^ c1 ^ k0;
+            int next2 = (int) (product0 >>> 32) ^ c3 ^ k1;
+            c1 = (int) product1;
+            c3 = (int) product0;
+            c0 = next0;
+            c2 = next2;
+            k0 += WEYL_0;
+            k1 += WEYL_1;
+        }
+
+        return new int[] { c0, c1, c2, c3 };
+    }
+}
\ No newline at end of file
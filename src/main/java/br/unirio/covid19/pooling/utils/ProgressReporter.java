@@ -0,0 +1,126 @@
+package br.unirio.covid19.pooling.utils;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class that reports the progress of a sweep of simulations, with the percentage of
+ * rounds completed, throughput and estimated time to finish. Rounds and cells may be
+ * completed concurrently by several threads; reports are written at most once per
+ * interval by the thread that crosses it.
+ */
+public class ProgressReporter
+{
+    /**
+     * Default interval between reports, in milliseconds
+     */
+    private static final long DEFAULT_INTERVAL = 10000;
+
+    private String name;
+    private long totalCells;
+    private long totalRounds;
+    private long interval;
+    private PrintStream out;
+
+    private LongAdder cells;
+    private LongAdder rounds;
+    private LongAdder individuals;
+    private long startTime;
+    private AtomicLong lastReportTime;
+
+    /**
+     * Initializes the reporter with the total number of cells and rounds in the sweep
+     */
+    public ProgressReporter(String name, long totalCells, long totalRounds)
+    {
+        this(name, totalCells, totalRounds, DEFAULT_INTERVAL, System.out);
+    }
+
+    /**
+     * Initializes the reporter indicating the interval between reports and their output
+     */
+    public ProgressReporter(String name, long totalCells, long totalRounds, long interval, PrintStream out)
+    {
+        this.name = name;
+        this.totalCells = totalCells;
+        this.totalRounds = totalRounds;
+        this.interval = interval;
+        this.out = out;
+        this.cells = new LongAdder();
+        this.rounds = new LongAdder();
+        this.individuals = new LongAdder();
+        this.startTime = System.currentTimeMillis();
+        this.lastReportTime = new AtomicLong(startTime);
+        out.println("Running " + name + ": " + totalCells + " cells, " + totalRounds + " rounds");
+    }
+
+    /**
+     * Registers rounds completed with a number of individuals each
+     */
+    public void addRounds(int roundCount, int individualCount)
+    {
+        rounds.add(roundCount);
+        individuals.add((long) roundCount * individualCount);
+        reportIfDue();
+    }
+
+    /**
+     * Registers a completed cell of the sweep
+     */
+    public void completeCell()
+    {
+        cells.increment();
+        reportIfDue();
+    }
+
+    /**
+     * Writes the final report
+     */
+    public void finish()
+    {
+        out.println(describeProgress(System.currentTimeMillis()) + " - finished");
+    }
+
+    /**
+     * Writes a report if the interval since the last one has elapsed
+     */
+    private void reportIfDue()
+    {
+        long now = System.currentTimeMillis();
+        long last = lastReportTime.get();
+
+        if (now - last >= interval && lastReportTime.compareAndSet(last, now))
+            out.println(describeProgress(now));
+    }
+
+    /**
+     * Describes the current progress of the sweep
+     */
+    public String describeProgress(long now)
+    {
+        long roundCount = rounds.sum();
+        double elapsed = Math.max(now - startTime, 1) / 1000.0;
+        double percent = (totalRounds > 0) ? 100.0 * roundCount / totalRounds : 0.0;
+        double roundsPerSecond = roundCount / elapsed;
+        double individualsPerSecond = individuals.sum() / elapsed;
+
+        StringBuilder sb = new StringBuilder(name);
+        sb.append(String.format(": %d/%d cells, %.1f%%", cells.sum(), totalCells, percent));
+        sb.append(String.format(", %.1f rounds/s, %.0f individuals/s", roundsPerSecond, individualsPerSecond));
+        sb.append(", elapsed ").append(formatTime((long) elapsed));
+
+        if (roundCount > 0 && roundCount < totalRounds)
+            sb.append(", ETA ").append(formatTime((long) ((totalRounds - roundCount) / roundsPerSecond)));
+
+        return sb.toString();
+    }
+
+    /**
+     * Formats a number of seconds as hours, minutes and seconds
+     */
+    private String formatTime(long seconds)
+    {
+        return String.format("%d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+}
\ No newline at end of file
@@ -5,7 +5,7 @@ import java.util.Random;
 /**
  * This code has been taken from JMetal
  */
-public class PseudoRandom
+public class PseudoRandom implements RandomStream
 {
 	private double seed;
 	private double[] oldrand = new double[55];
@@ -143,6 +143,43 @@ public class PseudoRandom
 		return low + (high - low) * randomPercentile();
 	}
 	
+	/**
+	 * Fetch a single random real number between 0.0 and 1.0 from this stream 
+	 */
+	@Override
+	public double nextDouble()
+	{
+		return rndreal(0.0, 1.0);
+	}
+
+	/**
+	 * Fetch a single random integer between low and high including the bounds from this stream 
+	 */
+	@Override
+	public int nextInt(int low, int high)
+	{
+		return rnd(low, high);
+	}
+
+	/**
+	 * Creates an independent random number stream using a given seed
+	 */
+	public static PseudoRandom createStream(long seed)
+	{
+		return new PseudoRandom(seed);
+	}
+
+	/**
+	 * Returns the generator used by the static methods
+	 */
+	public static PseudoRandom getGenerator()
+	{
+		if (generator == null)
+			generator = new PseudoRandom();
+
+		return generator;
+	}
+
 	/**
 	 * Initializes the generator using a given seed
 	 */
@@ -173,6 +210,19 @@ public class PseudoRandom
 		return generator.rnd(minBound, maxBound);
 	}
 
+	/**
+	 * Returns a random long value, usually to seed other streams
+	 */
+	public static long randLong()
+	{
+		if (generator == null)
+			generator = new PseudoRandom();
+
+		long high = generator.rnd(0, Integer.MAX_VALUE - 1);
+		long low = generator.rnd(0, Integer.MAX_VALUE - 1);
+		return (high << 31) ^ low;
+	}
+
 	/**
 	 * Returns a random double value between a minimum bound and a maximum bound
 	 */
@@ -0,0 +1,17 @@
+package br.unirio.covid19.pooling.utils;
+
+/**
+ * Interface for a stream of random numbers used by the simulations
+ */
+public interface RandomStream
+{
+    /**
+     * Fetch a single random real number between 0.0 and 1.0
+     */
+    double nextDouble();
+
+    /**
+     * Fetch a single random integer between low and high including the bounds
+     */
+    int nextInt(int low, int high);
+}
\ No newline at end of file